@@ -0,0 +1,175 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Unmodifiable map view of parallel arrays of keys and values, keys are sorted so lookup is a
+ * binary search. Arrays are not copied, so they must not be modified after wrapping. Iteration
+ * order is the natural order of keys. Null keys and values are not permitted.
+ */
+public final class ArrayStringMap extends AbstractMap<String, String> {
+  public static final String[] EMPTY = new String[0];
+
+  private final String[] keys;
+  private final String[] values;
+
+  private ArrayStringMap(String[] keys, String[] values) {
+    this.keys = keys;
+    this.values = values;
+  }
+
+  /**
+   * @param keys sorted keys, not copied
+   * @param values values for corresponding keys, not copied
+   * @return map view
+   */
+  public static ArrayStringMap wrap(String[] keys, String[] values) {
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("Keys and values differ in length");
+    }
+    return new ArrayStringMap(keys, values);
+  }
+
+  /**
+   * @param map entries
+   * @return new sorted array of keys, or backing array if map is {@link ArrayStringMap}
+   * @throws NullPointerException if any key is {@code null}
+   */
+  public static String[] keysOf(Map<String, String> map) {
+    if (map instanceof ArrayStringMap) {
+      return ((ArrayStringMap) map).keys;
+    }
+    if (map.isEmpty()) {
+      return EMPTY;
+    }
+    String[] keys = map.keySet().toArray(new String[map.size()]);
+    for (String k : keys) {
+      Objects.requireNonNull(k, "key");
+    }
+    Arrays.sort(keys);
+    return keys;
+  }
+
+  /**
+   * @param map entries
+   * @return new array of values ordered by sorted keys, or backing array if map is
+   *         {@link ArrayStringMap}
+   * @throws NullPointerException if any key or value is {@code null}
+   */
+  public static String[] valuesOf(Map<String, String> map) {
+    if (map instanceof ArrayStringMap) {
+      return ((ArrayStringMap) map).values;
+    }
+    String[] keys = keysOf(map);
+    if (keys.length == 0) {
+      return EMPTY;
+    }
+    String[] values = new String[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      values[i] = Objects.requireNonNull(map.get(keys[i]), "value");
+    }
+    return values;
+  }
+
+  /**
+   * @param keys keys
+   * @param values values for corresponding keys
+   * @return hash code as specified by {@link Map#hashCode()}
+   */
+  public static int hashCode(String[] keys, String[] values) {
+    int h = 0;
+    for (int i = 0; i < keys.length; i++) {
+      h += keys[i].hashCode() ^ values[i].hashCode();
+    }
+    return h;
+  }
+
+  private int indexOf(@Nullable Object key) {
+    return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  public @Nullable String get(@Nullable Object key) {
+    int i = indexOf(key);
+    return i >= 0 ? values[i] : null;
+  }
+
+  @Override
+  public Set<Map.Entry<String, String>> entrySet() {
+    return new AbstractSet<Map.Entry<String, String>>() {
+      @Override
+      public Iterator<Map.Entry<String, String>> iterator() {
+        return new Iterator<Map.Entry<String, String>>() {
+          int index;
+
+          @Override
+          public boolean hasNext() {
+            return index < keys.length;
+          }
+
+          @Override
+          public Map.Entry<String, String> next() {
+            if (index >= keys.length) {
+              throw new NoSuchElementException();
+            }
+            int i = index++;
+            return new SimpleImmutableEntry<>(keys[i], values[i]);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return keys.length;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o instanceof ArrayStringMap) {
+      ArrayStringMap other = (ArrayStringMap) o;
+      return Arrays.equals(keys, other.keys)
+          && Arrays.equals(values, other.values);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode(keys, values);
+  }
+}
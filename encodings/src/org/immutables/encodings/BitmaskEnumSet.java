@@ -0,0 +1,191 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.annotation.Nullable;
+
+/**
+ * Unmodifiable set view of enum constants which are selected by bits of a {@code long} mask. The
+ * array of enum constants (universe) is shared for all sets of the same enum type, so the only
+ * per-instance state is the mask. Only enums with at most 64 constants are supported. Iteration
+ * order is the natural order of enum constants.
+ * @param <E> enum element type
+ */
+public final class BitmaskEnumSet<E> extends AbstractSet<E> {
+  private static final int MAX_CONSTANTS = Long.SIZE;
+
+  private static final ClassValue<Enum<?>[]> UNIVERSES = new ClassValue<Enum<?>[]>() {
+    @Override
+    protected Enum<?>[] computeValue(Class<?> type) {
+      Enum<?>[] constants = (Enum<?>[]) type.getEnumConstants();
+      if (constants.length > MAX_CONSTANTS) {
+        throw new IllegalArgumentException(
+            "Enum " + type.getName() + " has more than " + MAX_CONSTANTS + " constants");
+      }
+      return constants;
+    }
+  };
+
+  private final @Nullable Enum<?>[] universe;
+  private final long mask;
+
+  private BitmaskEnumSet(@Nullable Enum<?>[] universe, long mask) {
+    this.universe = universe;
+    this.mask = mask;
+  }
+
+  /**
+   * @param universe all constants of the enum type, can be {@code null} only if mask is zero
+   * @param mask bits of selected constants by ordinal
+   * @return set view
+   */
+  public static <E> BitmaskEnumSet<E> of(@Nullable Enum<?>[] universe, long mask) {
+    if (mask != 0 && universe == null) {
+      throw new IllegalArgumentException("Universe is required for non-empty set");
+    }
+    return new BitmaskEnumSet<>(universe, mask);
+  }
+
+  /**
+   * @param elements enum constants
+   * @return mask with bits set at ordinals of elements
+   * @throws IllegalArgumentException if any element is not an enum constant or enum has more
+   *           than 64 constants
+   */
+  public static long maskOf(Iterable<?> elements) {
+    if (elements instanceof BitmaskEnumSet<?>) {
+      return ((BitmaskEnumSet<?>) elements).mask;
+    }
+    long mask = 0;
+    for (Object e : elements) {
+      mask |= 1L << toEnum(e).ordinal();
+    }
+    return mask;
+  }
+
+  /**
+   * @param elements enum constants
+   * @return shared array of all constants of the elements' enum type, {@code null} if there are
+   *         no elements
+   * @throws IllegalArgumentException if elements are not constants of the same enum with at most
+   *           64 constants
+   */
+  public static @Nullable Enum<?>[] universeOf(Iterable<?> elements) {
+    if (elements instanceof BitmaskEnumSet<?>) {
+      return ((BitmaskEnumSet<?>) elements).universe;
+    }
+    @Nullable Enum<?>[] universe = null;
+    @Nullable Class<?> type = null;
+    for (Object e : elements) {
+      Class<?> elementType = toEnum(e).getDeclaringClass();
+      if (type == null) {
+        type = elementType;
+        universe = UNIVERSES.get(type);
+      } else if (type != elementType) {
+        throw new IllegalArgumentException(
+            "Mixed enum types " + type.getName() + " and " + elementType.getName());
+      }
+    }
+    return universe;
+  }
+
+  private static Enum<?> toEnum(Object element) {
+    if (!(element instanceof Enum<?>)) {
+      throw new IllegalArgumentException("Not an enum constant: " + element);
+    }
+    Enum<?> constant = (Enum<?>) element;
+    if (constant.ordinal() >= MAX_CONSTANTS) {
+      throw new IllegalArgumentException("Enum constant ordinal is out of range: " + constant);
+    }
+    return constant;
+  }
+
+  /**
+   * @param universe enum constants, can be {@code null} only if mask is zero
+   * @param mask bits of selected constants
+   * @return hash code of the set as specified by {@link java.util.Set#hashCode()}
+   */
+  public static int hashCode(@Nullable Enum<?>[] universe, long mask) {
+    int h = 0;
+    for (long bits = mask; bits != 0; bits &= bits - 1) {
+      h += universe[Long.numberOfTrailingZeros(bits)].hashCode();
+    }
+    return h;
+  }
+
+  @Override
+  public int size() {
+    return Long.bitCount(mask);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return mask == 0;
+  }
+
+  @Override
+  public boolean contains(@Nullable Object o) {
+    if (mask == 0 || !(o instanceof Enum<?>)) {
+      return false;
+    }
+    Enum<?> constant = (Enum<?>) o;
+    int ordinal = constant.ordinal();
+    return ordinal < MAX_CONSTANTS
+        && (mask & 1L << ordinal) != 0
+        && universe[ordinal] == constant;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      long remaining = mask;
+
+      @Override
+      public boolean hasNext() {
+        return remaining != 0;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public E next() {
+        if (remaining == 0) {
+          throw new NoSuchElementException();
+        }
+        int ordinal = Long.numberOfTrailingZeros(remaining);
+        remaining &= remaining - 1;
+        return (E) universe[ordinal];
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o instanceof BitmaskEnumSet<?>) {
+      BitmaskEnumSet<?> other = (BitmaskEnumSet<?>) o;
+      return mask == other.mask
+          && (mask == 0 || universe == other.universe);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode(universe, mask);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.Collections;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.immutables.encode.Encoding;
+import org.immutables.encode.Encoding.StandardNaming;
+
+/**
+ * Stores {@code Set} of enum constants as a {@code long} bitmask together with a reference to the
+ * shared array of the enum's constants. Accessor returns lightweight {@link BitmaskEnumSet} view.
+ * Only enums with at most 64 constants are supported, {@link IllegalArgumentException} is thrown
+ * otherwise. As encoding applies to all {@code Set} attributes of the value type, enable it only
+ * on value types where every set attribute is a set of enum constants.
+ */
+@Encoding
+class CompactEnumSet<E> {
+  @Encoding.Impl(virtual = true)
+  private Set<E> set;
+
+  private final long mask = BitmaskEnumSet.maskOf(set);
+  private final @Nullable Enum<?>[] universe = BitmaskEnumSet.universeOf(set);
+
+  @Encoding.Expose
+  Set<E> get() {
+    return BitmaskEnumSet.of(universe, mask);
+  }
+
+  @Override
+  public String toString() {
+    return get().toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return BitmaskEnumSet.hashCode(universe, mask);
+  }
+
+  boolean equals(CompactEnumSet<E> other) {
+    return mask == other.mask
+        && (mask == 0 || universe == other.universe);
+  }
+
+  @Encoding.Builder
+  static final class Builder<E> {
+    private long mask;
+    private @Nullable Enum<?>[] universe;
+
+    @Encoding.Naming(standard = StandardNaming.ADD)
+    @Encoding.Init
+    void add(E element) {
+      addAll(Collections.singleton(element));
+    }
+
+    @Encoding.Naming(standard = StandardNaming.ADD_ALL)
+    @Encoding.Init
+    void addAll(Iterable<? extends E> elements) {
+      @Nullable Enum<?>[] u = BitmaskEnumSet.universeOf(elements);
+      if (u != null) {
+        if (universe != null && universe != u) {
+          throw new IllegalArgumentException("Mixed enum types in a set");
+        }
+        universe = u;
+        mask |= BitmaskEnumSet.maskOf(elements);
+      }
+    }
+
+    @Encoding.Init
+    @Encoding.Copy
+    void set(Set<? extends E> elements) {
+      mask = BitmaskEnumSet.maskOf(elements);
+      universe = BitmaskEnumSet.universeOf(elements);
+    }
+
+    @Encoding.Build
+    Set<E> build() {
+      return BitmaskEnumSet.of(universe, mask);
+    }
+  }
+}
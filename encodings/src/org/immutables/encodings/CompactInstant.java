@@ -0,0 +1,52 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.time.Instant;
+import org.immutables.encode.Encoding;
+
+/**
+ * Stores {@link Instant} attributes as epoch seconds and nanosecond adjustment fields instead of a
+ * reference to {@code Instant} object. Accessor creates new {@code Instant} on each call.
+ */
+@Encoding
+class CompactInstant {
+  @Encoding.Impl(virtual = true)
+  private Instant instant;
+
+  private final long seconds = instant.getEpochSecond();
+  private final int nanos = instant.getNano();
+
+  @Encoding.Expose
+  Instant get() {
+    return Instant.ofEpochSecond(seconds, nanos);
+  }
+
+  @Override
+  public String toString() {
+    return get().toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return get().hashCode();
+  }
+
+  boolean equals(CompactInstant other) {
+    return seconds == other.seconds
+        && nanos == other.nanos;
+  }
+}
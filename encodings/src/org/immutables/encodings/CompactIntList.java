@@ -0,0 +1,91 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.Arrays;
+import java.util.List;
+import org.immutables.encode.Encoding;
+import org.immutables.encode.Encoding.StandardNaming;
+
+/**
+ * Stores {@code List<Integer>} attributes as primitive {@code int[]} array instead of a list of
+ * boxed integers. Accessor returns lightweight {@link IntArrayList} view over the array, elements
+ * are boxed on access.
+ */
+@Encoding
+class CompactIntList {
+  @Encoding.Impl
+  private final int[] array = IntArrayList.EMPTY;
+
+  @Encoding.Expose
+  List<Integer> get() {
+    return IntArrayList.wrap(array);
+  }
+
+  @Encoding.Of
+  static int[] init(List<Integer> elements) {
+    return IntArrayList.toArray(elements);
+  }
+
+  @Override
+  public String toString() {
+    return Arrays.toString(array);
+  }
+
+  @Override
+  public int hashCode() {
+    return IntArrayList.hashCode(array);
+  }
+
+  boolean equals(CompactIntList other) {
+    return Arrays.equals(array, other.array);
+  }
+
+  @Encoding.Builder
+  static final class Builder {
+    private int[] array = IntArrayList.EMPTY;
+    private int size;
+
+    @Encoding.Naming(standard = StandardNaming.ADD)
+    @Encoding.Init
+    void add(int element) {
+      if (size == array.length) {
+        array = Arrays.copyOf(array, Math.max(8, size * 2));
+      }
+      array[size++] = element;
+    }
+
+    @Encoding.Naming(standard = StandardNaming.ADD_ALL)
+    @Encoding.Init
+    void addAll(Iterable<Integer> elements) {
+      for (int e : elements) {
+        add(e);
+      }
+    }
+
+    @Encoding.Init
+    @Encoding.Copy
+    void set(List<Integer> elements) {
+      array = IntArrayList.toArray(elements);
+      size = array.length;
+    }
+
+    @Encoding.Build
+    int[] build() {
+      return size == 0 ? IntArrayList.EMPTY : Arrays.copyOf(array, size);
+    }
+  }
+}
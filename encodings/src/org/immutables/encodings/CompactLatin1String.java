@@ -0,0 +1,57 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.Arrays;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import org.immutables.encode.Encoding;
+
+/**
+ * Stores {@code String} attributes which contain only Latin-1 characters as a byte array, using
+ * one byte per character instead of two. Strings with other characters are stored as is. Accessor
+ * decodes new {@code String} on each call, so this encoding trades access speed for footprint of
+ * long-lived values with many textual attributes. There's no saving on JVMs which already use
+ * compact strings (Java 9 and later).
+ */
+@Encoding
+class CompactLatin1String {
+  @Encoding.Impl(virtual = true)
+  private String string;
+
+  private final @Nullable byte[] latin1 = Latin1.encode(string);
+  private final @Nullable String other = Latin1.isLatin1(string) ? null : string;
+
+  @Encoding.Expose
+  String get() {
+    return latin1 != null ? Latin1.decode(latin1) : other;
+  }
+
+  @Override
+  public String toString() {
+    return get();
+  }
+
+  @Override
+  public int hashCode() {
+    return latin1 != null ? Latin1.hashCode(latin1) : other.hashCode();
+  }
+
+  boolean equals(CompactLatin1String other) {
+    return Arrays.equals(latin1, other.latin1)
+        && Objects.equals(this.other, other.other);
+  }
+}
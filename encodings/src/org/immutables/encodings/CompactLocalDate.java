@@ -0,0 +1,50 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.time.LocalDate;
+import org.immutables.encode.Encoding;
+
+/**
+ * Stores {@link LocalDate} attributes as epoch day field instead of a reference to
+ * {@code LocalDate} object. Accessor creates new {@code LocalDate} on each call.
+ */
+@Encoding
+class CompactLocalDate {
+  @Encoding.Impl(virtual = true)
+  private LocalDate date;
+
+  private final long epochDay = date.toEpochDay();
+
+  @Encoding.Expose
+  LocalDate get() {
+    return LocalDate.ofEpochDay(epochDay);
+  }
+
+  @Override
+  public String toString() {
+    return get().toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(epochDay);
+  }
+
+  boolean equals(CompactLocalDate other) {
+    return epochDay == other.epochDay;
+  }
+}
@@ -0,0 +1,54 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.OptionalInt;
+import org.immutables.encode.Encoding;
+
+/**
+ * Stores {@link OptionalInt} attributes as primitive value and presence flag fields instead of a
+ * reference to {@code OptionalInt} object.
+ */
+@Encoding
+class CompactOptionalInt {
+  @Encoding.Impl(virtual = true)
+  private OptionalInt opt;
+
+  private final int value = opt.orElse(0);
+  private final boolean present = opt.isPresent();
+
+  @Encoding.Expose
+  OptionalInt get() {
+    return present
+        ? OptionalInt.of(value)
+        : OptionalInt.empty();
+  }
+
+  @Override
+  public String toString() {
+    return get().toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return present ? value : 0;
+  }
+
+  boolean equals(CompactOptionalInt other) {
+    return present == other.present
+        && value == other.value;
+  }
+}
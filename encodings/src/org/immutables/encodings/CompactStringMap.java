@@ -0,0 +1,88 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import org.immutables.encode.Encoding;
+import org.immutables.encode.Encoding.StandardNaming;
+
+/**
+ * Stores {@code Map<String, String>} attributes as two parallel arrays of sorted keys and values
+ * instead of a hash map with an entry object per mapping. Accessor returns lightweight
+ * {@link ArrayStringMap} view, lookups are binary searches. Iteration order is the natural order
+ * of keys. Intended for small maps like labels, tags or headers.
+ */
+@Encoding
+class CompactStringMap {
+  @Encoding.Impl(virtual = true)
+  private Map<String, String> map;
+
+  private final String[] keys = ArrayStringMap.keysOf(map);
+  private final String[] values = ArrayStringMap.valuesOf(map);
+
+  @Encoding.Expose
+  Map<String, String> get() {
+    return ArrayStringMap.wrap(keys, values);
+  }
+
+  @Override
+  public String toString() {
+    return get().toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return ArrayStringMap.hashCode(keys, values);
+  }
+
+  boolean equals(CompactStringMap other) {
+    return Arrays.equals(keys, other.keys)
+        && Arrays.equals(values, other.values);
+  }
+
+  @Encoding.Builder
+  static final class Builder {
+    private final TreeMap<String, String> map = new TreeMap<>();
+
+    @Encoding.Naming(standard = StandardNaming.PUT)
+    @Encoding.Init
+    void put(String key, String value) {
+      map.put(key, value);
+    }
+
+    @Encoding.Naming(standard = StandardNaming.PUT_ALL)
+    @Encoding.Init
+    void putAll(Map<String, String> entries) {
+      map.putAll(entries);
+    }
+
+    @Encoding.Init
+    @Encoding.Copy
+    void set(Map<String, String> entries) {
+      map.clear();
+      map.putAll(entries);
+    }
+
+    @Encoding.Build
+    Map<String, String> build() {
+      return ArrayStringMap.wrap(
+          ArrayStringMap.keysOf(map),
+          ArrayStringMap.valuesOf(map));
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import javax.annotation.Nullable;
+
+/**
+ * Unmodifiable list view of an {@code int} array. Array is not copied, so it must not be modified
+ * after wrapping.
+ */
+public final class IntArrayList extends AbstractList<Integer> implements RandomAccess {
+  public static final int[] EMPTY = new int[0];
+
+  private final int[] array;
+
+  private IntArrayList(int[] array) {
+    this.array = array;
+  }
+
+  /**
+   * @param array array to wrap, not copied
+   * @return list view
+   */
+  public static IntArrayList wrap(int[] array) {
+    return new IntArrayList(array);
+  }
+
+  /**
+   * @param elements integers
+   * @return new array with elements, or backing array if elements is {@link IntArrayList}
+   * @throws NullPointerException if any element is {@code null}
+   */
+  public static int[] toArray(Iterable<Integer> elements) {
+    if (elements instanceof IntArrayList) {
+      return ((IntArrayList) elements).array;
+    }
+    if (elements instanceof Collection<?> && ((Collection<?>) elements).isEmpty()) {
+      return EMPTY;
+    }
+    int[] result = elements instanceof Collection<?>
+        ? new int[((Collection<?>) elements).size()]
+        : new int[8];
+    int size = 0;
+    for (Integer e : elements) {
+      if (size == result.length) {
+        result = Arrays.copyOf(result, size * 2);
+      }
+      result[size++] = e;
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+
+  /**
+   * @param array integers
+   * @return hash code as specified by {@link List#hashCode()}
+   */
+  public static int hashCode(int[] array) {
+    int h = 1;
+    for (int e : array) {
+      h = 31 * h + e;
+    }
+    return h;
+  }
+
+  @Override
+  public Integer get(int index) {
+    return array[index];
+  }
+
+  @Override
+  public int size() {
+    return array.length;
+  }
+
+  @Override
+  public int indexOf(@Nullable Object o) {
+    if (o instanceof Integer) {
+      int value = (Integer) o;
+      for (int i = 0; i < array.length; i++) {
+        if (array[i] == value) {
+          return i;
+        }
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public boolean contains(@Nullable Object o) {
+    return indexOf(o) >= 0;
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o instanceof IntArrayList) {
+      return Arrays.equals(array, ((IntArrayList) o).array);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode(array);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+
+/**
+ * Conversion of strings to and from single byte per character ISO-8859-1 (Latin-1) form.
+ */
+public final class Latin1 {
+  private static final int MAX_LATIN1_CHAR = 0xFF;
+
+  private Latin1() {}
+
+  /**
+   * @param string string to encode
+   * @return Latin-1 bytes or {@code null} if string contains characters outside of Latin-1 range
+   */
+  public static @Nullable byte[] encode(String string) {
+    if (!isLatin1(string)) {
+      return null;
+    }
+    return string.getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * @param string string
+   * @return {@code true} if all characters fit in Latin-1 range
+   */
+  public static boolean isLatin1(String string) {
+    for (int i = 0; i < string.length(); i++) {
+      if (string.charAt(i) > MAX_LATIN1_CHAR) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param bytes Latin-1 bytes
+   * @return decoded string
+   */
+  public static String decode(byte[] bytes) {
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * @param bytes Latin-1 bytes
+   * @return hash code equal to {@link String#hashCode()} of decoded string
+   */
+  public static int hashCode(byte[] bytes) {
+    int h = 0;
+    for (byte b : bytes) {
+      h = 31 * h + (b & MAX_LATIN1_CHAR);
+    }
+    return h;
+  }
+}
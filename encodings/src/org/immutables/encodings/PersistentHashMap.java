@@ -0,0 +1,380 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable map implemented as a hash array mapped trie. Putting and removing entries return a
+ * new map in {@code O(log32 n)}, sharing all untouched nodes with the original one. Null keys
+ * and values are not permitted. Iteration order is unspecified.
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+  private static final int SHIFT = 5;
+  private static final int MASK = (1 << SHIFT) - 1;
+  // 7 levels of bitmap nodes consume all 32 hash bits, plus one level of collision nodes
+  private static final int MAX_DEPTH = 8;
+
+  private static final Node EMPTY_NODE = new BitmapNode(0, new Object[0]);
+  private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(EMPTY_NODE, 0);
+
+  private final Node root;
+  private final int size;
+
+  private PersistentHashMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> of() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> entries) {
+    if (entries instanceof PersistentHashMap<?, ?>) {
+      return (PersistentHashMap<K, V>) entries;
+    }
+    return PersistentHashMap.<K, V>of().plusAll(entries);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public @Nullable V get(@Nullable Object key) {
+    return key != null ? (V) root.find(0, hash(key), key) : null;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * @param key key
+   * @param value value
+   * @return map with the entry added or replaced
+   */
+  public PersistentHashMap<K, V> plus(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    boolean[] added = new boolean[1];
+    Node newRoot = root.assoc(0, hash(key), key, value, added);
+    return newRoot == root ? this : new PersistentHashMap<K, V>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * @param entries entries to add
+   * @return map with all entries added or replaced
+   */
+  public PersistentHashMap<K, V> plusAll(Map<? extends K, ? extends V> entries) {
+    PersistentHashMap<K, V> result = this;
+    for (Map.Entry<? extends K, ? extends V> e : entries.entrySet()) {
+      result = result.plus(e.getKey(), e.getValue());
+    }
+    return result;
+  }
+
+  /**
+   * @param key key to remove
+   * @return map without the entry for {@code key}
+   */
+  public PersistentHashMap<K, V> minus(Object key) {
+    Objects.requireNonNull(key, "key");
+    Node newRoot = root.without(0, hash(key), key);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot != null ? new PersistentHashMap<K, V>(newRoot, size - 1) : PersistentHashMap.<K, V>of();
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bitpos(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /**
+   * Both node kinds store key and value in adjacent slots of {@link #array}. A {@code null} key
+   * slot means that the value slot holds a child node.
+   */
+  private static abstract class Node {
+    final Object[] array;
+
+    Node(Object[] array) {
+      this.array = array;
+    }
+
+    abstract @Nullable Object find(int shift, int hash, Object key);
+
+    abstract Node assoc(int shift, int hash, Object key, Object value, boolean[] added);
+
+    /** @return {@code this} if key is absent, {@code null} if node become empty */
+    abstract @Nullable Node without(int shift, int hash, Object key);
+  }
+
+  private static final class BitmapNode extends Node {
+    final int bitmap;
+
+    BitmapNode(int bitmap, Object[] array) {
+      super(array);
+      this.bitmap = bitmap;
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    @Nullable
+    Object find(int shift, int hash, Object key) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        return ((Node) v).find(shift + SHIFT, hash, key);
+      }
+      return key.equals(k) ? v : null;
+    }
+
+    @Override
+    Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+      int bit = bitpos(hash, shift);
+      int i = 2 * index(bit);
+      if ((bitmap & bit) != 0) {
+        Object k = array[i];
+        Object v = array[i + 1];
+        if (k == null) {
+          Node child = ((Node) v).assoc(shift + SHIFT, hash, key, value, added);
+          return child == v ? this : new BitmapNode(bitmap, replace(array, i, null, child));
+        }
+        if (key.equals(k)) {
+          return v == value ? this : new BitmapNode(bitmap, replace(array, i, k, value));
+        }
+        added[0] = true;
+        Node child = createNode(shift + SHIFT, k, v, hash, key, value);
+        return new BitmapNode(bitmap, replace(array, i, null, child));
+      }
+      added[0] = true;
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, i);
+      newArray[i] = key;
+      newArray[i + 1] = value;
+      System.arraycopy(array, i, newArray, i + 2, array.length - i);
+      return new BitmapNode(bitmap | bit, newArray);
+    }
+
+    @Override
+    @Nullable
+    Node without(int shift, int hash, Object key) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = ((Node) v).without(shift + SHIFT, hash, key);
+        if (child == v) {
+          return this;
+        }
+        if (child != null) {
+          return new BitmapNode(bitmap, replace(array, i, null, child));
+        }
+      } else if (!key.equals(k)) {
+        return this;
+      }
+      if (bitmap == bit) {
+        return null;
+      }
+      return new BitmapNode(bitmap ^ bit, remove(array, i));
+    }
+  }
+
+  private static final class CollisionNode extends Node {
+    final int hash;
+
+    CollisionNode(int hash, Object[] array) {
+      super(array);
+      this.hash = hash;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @Nullable
+    Object find(int shift, int hash, Object key) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int i = indexOf(key);
+      return i >= 0 ? array[i + 1] : null;
+    }
+
+    @Override
+    Node assoc(int shift, int hash, Object key, Object value, boolean[] added) {
+      if (hash != this.hash) {
+        return new BitmapNode(bitpos(this.hash, shift), new Object[] {null, this})
+            .assoc(shift, hash, key, value, added);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        return array[i + 1] == value ? this : new CollisionNode(hash, replace(array, i, key, value));
+      }
+      added[0] = true;
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      return new CollisionNode(hash, newArray);
+    }
+
+    @Override
+    @Nullable
+    Node without(int shift, int hash, Object key) {
+      int i = hash == this.hash ? indexOf(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      return new CollisionNode(hash, remove(array, i));
+    }
+  }
+
+  private static Node createNode(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+    int hash1 = hash(key1);
+    if (hash1 == hash2) {
+      return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+    }
+    boolean[] ignored = new boolean[1];
+    return EMPTY_NODE
+        .assoc(shift, hash1, key1, value1, ignored)
+        .assoc(shift, hash2, key2, value2, ignored);
+  }
+
+  private static Object[] replace(Object[] array, int i, @Nullable Object key, Object value) {
+    Object[] result = array.clone();
+    result[i] = key;
+    result[i + 1] = value;
+    return result;
+  }
+
+  private static Object[] remove(Object[] array, int i) {
+    Object[] result = new Object[array.length - 2];
+    System.arraycopy(array, 0, result, 0, i);
+    System.arraycopy(array, i + 2, result, i, array.length - i - 2);
+    return result;
+  }
+
+  private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+    private final Object[][] arrays = new Object[MAX_DEPTH][];
+    private final int[] positions = new int[MAX_DEPTH];
+    private int depth = -1;
+    private @Nullable Map.Entry<K, V> next;
+
+    EntryIterator(Node root) {
+      push(root.array);
+      advance();
+    }
+
+    private void push(Object[] array) {
+      depth++;
+      arrays[depth] = array;
+      positions[depth] = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void advance() {
+      next = null;
+      while (depth >= 0) {
+        Object[] array = arrays[depth];
+        int p = positions[depth];
+        if (p >= array.length) {
+          arrays[depth--] = null;
+          continue;
+        }
+        positions[depth] = p + 2;
+        if (array[p] == null) {
+          push(((Node) array[p + 1]).array);
+        } else {
+          next = new AbstractMap.SimpleImmutableEntry<>((K) array[p], (V) array[p + 1]);
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      Map.Entry<K, V> result = next;
+      if (result == null) {
+        throw new NoSuchElementException();
+      }
+      advance();
+      return result;
+    }
+  }
+}
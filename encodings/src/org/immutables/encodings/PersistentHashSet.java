@@ -0,0 +1,97 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import javax.annotation.Nullable;
+
+/**
+ * Immutable set backed by {@link PersistentHashMap}. Adding and removing elements return a new
+ * set in {@code O(log32 n)}, sharing structure with the original one. Null elements are not
+ * permitted. Iteration order is unspecified.
+ * @param <E> element type
+ */
+public final class PersistentHashSet<E> extends AbstractSet<E> {
+  private static final PersistentHashSet<Object> EMPTY =
+      new PersistentHashSet<>(PersistentHashMap.<Object, Boolean>of());
+
+  private final PersistentHashMap<E, Boolean> map;
+
+  private PersistentHashSet(PersistentHashMap<E, Boolean> map) {
+    this.map = map;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentHashSet<E> of() {
+    return (PersistentHashSet<E>) EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentHashSet<E> copyOf(Iterable<? extends E> elements) {
+    if (elements instanceof PersistentHashSet<?>) {
+      return (PersistentHashSet<E>) elements;
+    }
+    return PersistentHashSet.<E>of().plusAll(elements);
+  }
+
+  @Override
+  public int size() {
+    return map.size();
+  }
+
+  @Override
+  public boolean contains(@Nullable Object element) {
+    return map.containsKey(element);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return map.keySet().iterator();
+  }
+
+  /**
+   * @param element element to add
+   * @return set with the element added
+   */
+  public PersistentHashSet<E> plus(E element) {
+    return wrap(map.plus(element, Boolean.TRUE));
+  }
+
+  /**
+   * @param elements elements to add
+   * @return set with all elements added
+   */
+  public PersistentHashSet<E> plusAll(Iterable<? extends E> elements) {
+    PersistentHashMap<E, Boolean> result = map;
+    for (E element : elements) {
+      result = result.plus(element, Boolean.TRUE);
+    }
+    return wrap(result);
+  }
+
+  /**
+   * @param element element to remove
+   * @return set without the element
+   */
+  public PersistentHashSet<E> minus(Object element) {
+    return wrap(map.minus(element));
+  }
+
+  private PersistentHashSet<E> wrap(PersistentHashMap<E, Boolean> newMap) {
+    return newMap == map ? this : new PersistentHashSet<>(newMap);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.List;
+import org.immutables.encode.Encoding;
+import org.immutables.encode.Encoding.StandardNaming;
+
+/**
+ * Stores {@code List} attributes as {@link PersistentVector}, so that {@code with*Added},
+ * {@code with*Replaced} and builders initialized {@code from} an instance append in
+ * {@code O(log n)} while sharing structure with the previous value instead of copying it.
+ */
+@Encoding
+class PersistentListEncoding<T> {
+  @Encoding.Impl
+  private final PersistentVector<T> list = PersistentVector.of();
+
+  @Encoding.Expose
+  List<T> get() {
+    return list;
+  }
+
+  @Encoding.Of
+  static <T> PersistentVector<T> init(List<? extends T> elements) {
+    return PersistentVector.copyOf(elements);
+  }
+
+  @Encoding.Copy
+  @Encoding.Naming("with*Added")
+  PersistentVector<T> withAdded(T element) {
+    return list.plus(element);
+  }
+
+  @Encoding.Copy
+  @Encoding.Naming("with*Replaced")
+  PersistentVector<T> withReplaced(int index, T element) {
+    return list.with(index, element);
+  }
+
+  @Override
+  public String toString() {
+    return list.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return list.hashCode();
+  }
+
+  boolean equals(PersistentListEncoding<T> other) {
+    return list.equals(other.list);
+  }
+
+  @Encoding.Builder
+  static final class Builder<T> {
+    private PersistentVector.Builder<T> list = PersistentVector.<T>of().toBuilder();
+
+    @Encoding.Naming(standard = StandardNaming.ADD)
+    @Encoding.Init
+    void add(T element) {
+      list.add(element);
+    }
+
+    @Encoding.Naming(standard = StandardNaming.ADD_ALL)
+    @Encoding.Init
+    void addAll(Iterable<? extends T> elements) {
+      list.addAll(elements);
+    }
+
+    // adopts persistent vector of the instance builder is initialized from, no copy is made
+    @Encoding.Init
+    @Encoding.Copy
+    void set(List<? extends T> elements) {
+      list = PersistentVector.<T>copyOf(elements).toBuilder();
+    }
+
+    @Encoding.Build
+    PersistentVector<T> build() {
+      return list.build();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.Map;
+import org.immutables.encode.Encoding;
+import org.immutables.encode.Encoding.StandardNaming;
+
+/**
+ * Stores {@code Map} attributes as {@link PersistentHashMap}, so that {@code with*Put},
+ * {@code with*Removed} and builders initialized {@code from} an instance update entries in
+ * {@code O(log n)} while sharing structure with the previous value instead of copying it.
+ */
+@Encoding
+class PersistentMapEncoding<K, V> {
+  @Encoding.Impl
+  private final PersistentHashMap<K, V> map = PersistentHashMap.of();
+
+  @Encoding.Expose
+  Map<K, V> get() {
+    return map;
+  }
+
+  @Encoding.Of
+  static <K, V> PersistentHashMap<K, V> init(Map<? extends K, ? extends V> entries) {
+    return PersistentHashMap.copyOf(entries);
+  }
+
+  @Encoding.Copy
+  @Encoding.Naming("with*Put")
+  PersistentHashMap<K, V> withPut(K key, V value) {
+    return map.plus(key, value);
+  }
+
+  @Encoding.Copy
+  @Encoding.Naming("with*Removed")
+  PersistentHashMap<K, V> withRemoved(K key) {
+    return map.minus(key);
+  }
+
+  @Override
+  public String toString() {
+    return map.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return map.hashCode();
+  }
+
+  boolean equals(PersistentMapEncoding<K, V> other) {
+    return map.equals(other.map);
+  }
+
+  @Encoding.Builder
+  static final class Builder<K, V> {
+    private PersistentHashMap<K, V> map = PersistentHashMap.of();
+
+    @Encoding.Naming(standard = StandardNaming.PUT)
+    @Encoding.Init
+    void put(K key, V value) {
+      map = map.plus(key, value);
+    }
+
+    @Encoding.Naming(standard = StandardNaming.PUT_ALL)
+    @Encoding.Init
+    void putAll(Map<? extends K, ? extends V> entries) {
+      map = map.plusAll(entries);
+    }
+
+    // adopts persistent map of the instance builder is initialized from, no copy is made
+    @Encoding.Init
+    @Encoding.Copy
+    void set(Map<? extends K, ? extends V> entries) {
+      map = PersistentHashMap.copyOf(entries);
+    }
+
+    @Encoding.Build
+    PersistentHashMap<K, V> build() {
+      return map;
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.Set;
+import org.immutables.encode.Encoding;
+import org.immutables.encode.Encoding.StandardNaming;
+
+/**
+ * Stores {@code Set} attributes as {@link PersistentHashSet}, so that {@code with*Added},
+ * {@code with*Removed} and builders initialized {@code from} an instance update elements in
+ * {@code O(log n)} while sharing structure with the previous value instead of copying it.
+ */
+@Encoding
+class PersistentSetEncoding<T> {
+  @Encoding.Impl
+  private final PersistentHashSet<T> hashSet = PersistentHashSet.of();
+
+  @Encoding.Expose
+  Set<T> get() {
+    return hashSet;
+  }
+
+  @Encoding.Of
+  static <T> PersistentHashSet<T> init(Set<? extends T> elements) {
+    return PersistentHashSet.copyOf(elements);
+  }
+
+  @Encoding.Copy
+  @Encoding.Naming("with*Added")
+  PersistentHashSet<T> withAdded(T element) {
+    return hashSet.plus(element);
+  }
+
+  @Encoding.Copy
+  @Encoding.Naming("with*Removed")
+  PersistentHashSet<T> withRemoved(T element) {
+    return hashSet.minus(element);
+  }
+
+  @Override
+  public String toString() {
+    return hashSet.toString();
+  }
+
+  @Override
+  public int hashCode() {
+    return hashSet.hashCode();
+  }
+
+  boolean equals(PersistentSetEncoding<T> other) {
+    return hashSet.equals(other.hashSet);
+  }
+
+  @Encoding.Builder
+  static final class Builder<T> {
+    private PersistentHashSet<T> hashSet = PersistentHashSet.of();
+
+    @Encoding.Naming(standard = StandardNaming.ADD)
+    @Encoding.Init
+    void add(T element) {
+      hashSet = hashSet.plus(element);
+    }
+
+    @Encoding.Naming(standard = StandardNaming.ADD_ALL)
+    @Encoding.Init
+    void addAll(Iterable<? extends T> elements) {
+      hashSet = hashSet.plusAll(elements);
+    }
+
+    // adopts persistent set of the instance builder is initialized from, no copy is made
+    @Encoding.Init
+    @Encoding.Copy
+    void set(Set<? extends T> elements) {
+      hashSet = PersistentHashSet.copyOf(elements);
+    }
+
+    @Encoding.Build
+    PersistentHashSet<T> build() {
+      return hashSet;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Immutable list implemented as a 32-way bit-partitioned vector trie with a tail buffer.
+ * Appending and replacing elements return a new vector in {@code O(log32 n)}, sharing all
+ * untouched nodes with the original one. Use {@link Builder} to append many elements, it fills
+ * leaf arrays in place and attaches them to the trie once per 32 elements. Null elements are
+ * not permitted.
+ * @param <E> element type
+ */
+public final class PersistentVector<E> extends AbstractList<E> implements RandomAccess {
+  private static final int SHIFT = 5;
+  private static final int WIDTH = 1 << SHIFT;
+  private static final int MASK = WIDTH - 1;
+
+  private static final PersistentVector<Object> EMPTY =
+      new PersistentVector<>(0, SHIFT, new Object[WIDTH], new Object[0]);
+
+  private final int size;
+  private final int shift;
+  private final Object[] root;
+  private final Object[] tail;
+
+  private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+    this.size = size;
+    this.shift = shift;
+    this.root = root;
+    this.tail = tail;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentVector<E> of() {
+    return (PersistentVector<E>) EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentVector<E> copyOf(Iterable<? extends E> elements) {
+    if (elements instanceof PersistentVector<?>) {
+      return (PersistentVector<E>) elements;
+    }
+    return PersistentVector.<E>of().plusAll(elements);
+  }
+
+  /**
+   * @return builder which appends elements to this vector
+   */
+  public Builder<E> toBuilder() {
+    return new Builder<>(this);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public E get(int index) {
+    checkElementIndex(index);
+    return (E) arrayFor(index)[index & MASK];
+  }
+
+  /**
+   * @param element element to append
+   * @return vector with the element appended
+   */
+  public PersistentVector<E> plus(E element) {
+    Objects.requireNonNull(element, "element");
+    if (size - tailOffset() < WIDTH) {
+      Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+      newTail[tail.length] = element;
+      return new PersistentVector<>(size + 1, shift, root, newTail);
+    }
+    return withNextTail(new Object[] {element});
+  }
+
+  /**
+   * @param elements elements to append
+   * @return vector with all elements appended
+   */
+  public PersistentVector<E> plusAll(Iterable<? extends E> elements) {
+    return toBuilder().addAll(elements).build();
+  }
+
+  /**
+   * @param index index of the element to replace
+   * @param element new element
+   * @return vector with the element at {@code index} replaced
+   */
+  public PersistentVector<E> with(int index, E element) {
+    checkElementIndex(index);
+    Objects.requireNonNull(element, "element");
+    if (index >= tailOffset()) {
+      Object[] newTail = tail.clone();
+      newTail[index & MASK] = element;
+      return new PersistentVector<>(size, shift, root, newTail);
+    }
+    return new PersistentVector<>(size, shift, assoc(shift, root, index, element), tail);
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int index;
+      private Object[] array;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public E next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        if ((index & MASK) == 0) {
+          array = arrayFor(index);
+        }
+        return (E) array[index++ & MASK];
+      }
+    };
+  }
+
+  private void checkElementIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index " + index + " is out of bounds for size " + size);
+    }
+  }
+
+  private boolean isTailFull() {
+    return size - tailOffset() == WIDTH;
+  }
+
+  private int tailOffset() {
+    return size < WIDTH ? 0 : ((size - 1) >>> SHIFT) << SHIFT;
+  }
+
+  private Object[] arrayFor(int index) {
+    if (index >= tailOffset()) {
+      return tail;
+    }
+    Object[] node = root;
+    for (int level = shift; level > 0; level -= SHIFT) {
+      node = (Object[]) node[(index >>> level) & MASK];
+    }
+    return node;
+  }
+
+  /** Pushes full tail into the trie, {@code newTail} becomes the tail of returned vector. */
+  private PersistentVector<E> withNextTail(Object[] newTail) {
+    Object[] newRoot;
+    int newShift = shift;
+    if ((size >>> SHIFT) > (1 << shift)) {
+      newRoot = new Object[WIDTH];
+      newRoot[0] = root;
+      newRoot[1] = newPath(shift, tail);
+      newShift += SHIFT;
+    } else {
+      newRoot = pushTail(shift, root, tail);
+    }
+    return new PersistentVector<>(size + newTail.length, newShift, newRoot, newTail);
+  }
+
+  private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+    int subIndex = ((size - 1) >>> level) & MASK;
+    Object[] result = parent.clone();
+    if (level == SHIFT) {
+      result[subIndex] = tailNode;
+    } else {
+      Object[] child = (Object[]) parent[subIndex];
+      result[subIndex] = child != null
+          ? pushTail(level - SHIFT, child, tailNode)
+          : newPath(level - SHIFT, tailNode);
+    }
+    return result;
+  }
+
+  private static Object[] newPath(int level, Object[] node) {
+    if (level == 0) {
+      return node;
+    }
+    Object[] result = new Object[WIDTH];
+    result[0] = newPath(level - SHIFT, node);
+    return result;
+  }
+
+  private static Object[] assoc(int level, Object[] node, int index, Object element) {
+    Object[] result = node.clone();
+    if (level == 0) {
+      result[index & MASK] = element;
+    } else {
+      int subIndex = (index >>> level) & MASK;
+      result[subIndex] = assoc(level - SHIFT, (Object[]) node[subIndex], index, element);
+    }
+    return result;
+  }
+
+  /**
+   * Appends elements to a vector. Elements are collected in a leaf array owned by the builder,
+   * which is attached to the trie when full, so that appending {@code n} elements costs
+   * {@code O(n + n/32 * log32 n)} instead of copying the tail on every element.
+   * @param <E> element type
+   */
+  @NotThreadSafe
+  public static final class Builder<E> {
+    private PersistentVector<E> vector;
+    private Object[] leaf = new Object[WIDTH];
+    private int count;
+
+    Builder(PersistentVector<E> vector) {
+      this.vector = vector;
+    }
+
+    /**
+     * @param element element to append
+     * @return {@code this} builder
+     */
+    public Builder<E> add(E element) {
+      Objects.requireNonNull(element, "element");
+      if (count == 0 && vector.size > 0 && !vector.isTailFull()) {
+        // fill up partial tail of initial vector first
+        vector = vector.plus(element);
+        return this;
+      }
+      leaf[count++] = element;
+      if (count == WIDTH) {
+        vector = attach(leaf);
+        leaf = new Object[WIDTH];
+        count = 0;
+      }
+      return this;
+    }
+
+    /**
+     * @param elements elements to append
+     * @return {@code this} builder
+     */
+    public Builder<E> addAll(Iterable<? extends E> elements) {
+      for (E element : elements) {
+        add(element);
+      }
+      return this;
+    }
+
+    /**
+     * @return vector with all appended elements, builder could be used to append more
+     */
+    public PersistentVector<E> build() {
+      return count == 0 ? vector : attach(Arrays.copyOf(leaf, count));
+    }
+
+    private PersistentVector<E> attach(Object[] newTail) {
+      if (vector.size == 0) {
+        return new PersistentVector<>(newTail.length, SHIFT, vector.root, newTail);
+      }
+      return vector.withNextTail(newTail);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+/**
+ * Library of encodings which store attributes of common types in a compact physical form. Each
+ * encoding is activated by the generated {@code *Enabled} annotation placed on a value type (or
+ * on a package or meta-annotation), for example {@code @CompactInstantEnabled}.
+ * <p>
+ * Approximate retained size per attribute on a 64-bit JVM with compressed references:
+ * <table summary="Memory per attribute">
+ * <tr><th>Encoding</th><th>Default</th><th>Encoded</th></tr>
+ * <tr><td>{@link CompactInstant}</td><td>28 bytes</td><td>12 bytes</td></tr>
+ * <tr><td>{@link CompactLocalDate}</td><td>28 bytes</td><td>8 bytes</td></tr>
+ * <tr><td>{@link CompactEnumSet}</td><td>~52 bytes</td><td>12 bytes</td></tr>
+ * <tr><td>{@link CompactLatin1String}</td><td>44 + 2n bytes</td><td>24 + n bytes</td></tr>
+ * <tr><td>{@link CompactOptionalInt}</td><td>20 bytes</td><td>5 bytes</td></tr>
+ * <tr><td>{@link CompactOptionalLong}, {@link CompactOptionalDouble}</td><td>28 bytes</td>
+ * <td>9 bytes</td></tr>
+ * <tr><td>{@link CompactIntList}</td><td>~36 + 20n bytes</td><td>20 + 4n bytes</td></tr>
+ * <tr><td>{@link CompactStringMap}</td><td>~64 + 32n bytes</td><td>40 + 8n bytes</td></tr>
+ * </table>
+ * Sizes exclude the contents of strings in collections, which are shared either way. The price
+ * is that accessors of most encodings create a small wrapper or value object on each call.
+ * <p>
+ * {@link PersistentListEncoding}, {@link PersistentMapEncoding} and
+ * {@link PersistentSetEncoding} trade memory for cheaper modification instead: collections are
+ * stored as persistent {@link PersistentVector}, {@link PersistentHashMap} and
+ * {@link PersistentHashSet}, so that generated {@code with*Added}, {@code with*Put},
+ * {@code with*Removed} copy methods and builders initialized from an instance share structure
+ * with the previous value instead of copying it.
+ */
+package org.immutables.encodings;
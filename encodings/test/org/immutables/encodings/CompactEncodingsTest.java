@@ -0,0 +1,128 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.lang.annotation.RetentionPolicy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class CompactEncodingsTest {
+  private static final Instant CREATED = Instant.ofEpochSecond(1478000000L, 123456789);
+  private static final LocalDate DAY = LocalDate.of(2016, 11, 1);
+
+  private static ImmutableUseCompactEncodings.Builder builder() {
+    return ImmutableUseCompactEncodings.builder()
+        .created(CREATED)
+        .day(DAY)
+        .name("caf\u00e9");
+  }
+
+  @Test
+  public void roundtripAttributes() {
+    ImmutableUseCompactEncodings value = builder()
+        .addPolicies(RetentionPolicy.RUNTIME)
+        .addPolicies(RetentionPolicy.SOURCE)
+        .count(OptionalInt.of(3))
+        .ratio(OptionalDouble.of(0.5))
+        .addNumbers(3)
+        .addNumbers(1)
+        .addAllNumbers(Arrays.asList(4, 1))
+        .putLabels("b", "2")
+        .putLabels("a", "1")
+        .build();
+
+    check(value.created()).is(CREATED);
+    check(value.day()).is(DAY);
+    check(value.name()).is("caf\u00e9");
+    check(value.policies()).isOf(EnumSet.of(RetentionPolicy.SOURCE, RetentionPolicy.RUNTIME));
+    check(value.count()).is(OptionalInt.of(3));
+    check(value.total()).is(OptionalLong.empty());
+    check(value.ratio()).is(OptionalDouble.of(0.5));
+    check(value.numbers()).isOf(3, 1, 4, 1);
+    check(value.labels().keySet()).isOf("a", "b");
+    check(value.labels().get("b")).is("2");
+  }
+
+  @Test
+  public void equalsAndHashCodeMatchCollections() {
+    Map<String, String> labels = new LinkedHashMap<>();
+    labels.put("z", "26");
+    labels.put("y", "25");
+
+    ImmutableUseCompactEncodings first = builder()
+        .policies(EnumSet.of(RetentionPolicy.CLASS))
+        .numbers(Arrays.asList(1, 2))
+        .labels(labels)
+        .build();
+
+    ImmutableUseCompactEncodings second = builder()
+        .addPolicies(RetentionPolicy.CLASS)
+        .addNumbers(1)
+        .addNumbers(2)
+        .labels(new HashMap<>(labels))
+        .build();
+
+    check(first).is(second);
+    check(first.hashCode()).is(second.hashCode());
+    check(first.policies()).is(EnumSet.of(RetentionPolicy.CLASS));
+    check(first.policies().hashCode()).is(EnumSet.of(RetentionPolicy.CLASS).hashCode());
+    check(first.numbers()).is(Arrays.asList(1, 2));
+    check(first.numbers().hashCode()).is(Arrays.asList(1, 2).hashCode());
+    check(first.labels()).is(labels);
+    check(first.labels().hashCode()).is(labels.hashCode());
+    check(first.withName("\u0436").name()).is("\u0436");
+    check(first.withName("\u0436")).not(first);
+  }
+
+  @Test
+  public void emptyCollections() {
+    ImmutableUseCompactEncodings value = builder().build();
+    check(value.policies()).isEmpty();
+    check(value.numbers()).isEmpty();
+    check(value.labels().isEmpty());
+    check(value).is(ImmutableUseCompactEncodings.copyOf(value));
+  }
+
+  @Test
+  public void latin1HashCode() {
+    for (String s : Arrays.asList("", "abc", "\u00ff\u00e9x")) {
+      check(Latin1.hashCode(Latin1.encode(s))).is(s.hashCode());
+      check(Latin1.decode(Latin1.encode(s))).is(s);
+    }
+    check(Latin1.encode("\u0100")).isNull();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectNonEnumElements() {
+    BitmaskEnumSet.maskOf(Collections.singleton("a"));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void rejectNullMapValues() {
+    ArrayStringMap.valuesOf(Collections.<String, String>singletonMap("a", null));
+  }
+}
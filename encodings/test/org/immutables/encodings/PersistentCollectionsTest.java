@@ -0,0 +1,161 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class PersistentCollectionsTest {
+  @Test
+  public void vector() {
+    List<Integer> expected = new ArrayList<>();
+    PersistentVector<Integer> vector = PersistentVector.of();
+    // crosses tail, first and second level root overflow
+    for (int i = 0; i < 40000; i++) {
+      PersistentVector<Integer> previous = vector;
+      vector = vector.plus(i);
+      expected.add(i);
+      check(previous.size()).is(i);
+    }
+    check(vector).isOf(expected);
+    check(vector.get(33000)).is(33000);
+
+    PersistentVector<Integer> replaced = vector.with(1025, -1);
+    check(replaced.get(1025)).is(-1);
+    check(vector.get(1025)).is(1025);
+    check(replaced.with(39999, -2).get(39999)).is(-2);
+  }
+
+  @Test
+  public void vectorBulkAppend() {
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 45; i++) {
+      expected.add(i);
+    }
+    PersistentVector<Integer> partial = PersistentVector.copyOf(expected);
+    check(partial).isOf(expected);
+
+    List<Integer> more = new ArrayList<>();
+    for (int i = 45; i < 40000; i++) {
+      more.add(i);
+    }
+    PersistentVector<Integer> vector = partial.plusAll(more);
+    expected.addAll(more);
+    check(vector).isOf(expected);
+    check(vector.get(1056)).is(1056);
+    check(partial.size()).is(45);
+
+    PersistentVector.Builder<Integer> builder = vector.toBuilder().add(-1);
+    PersistentVector<Integer> first = builder.build();
+    PersistentVector<Integer> second = builder.add(-2).build();
+    check(first.size()).is(40001);
+    check(second.get(40000)).is(-1);
+    check(second.get(40001)).is(-2);
+    check(vector.plus(-1)).isOf(first);
+  }
+
+  @Test
+  public void map() {
+    Map<Key, Integer> expected = new HashMap<>();
+    PersistentHashMap<Key, Integer> map = PersistentHashMap.of();
+    for (int i = 0; i < 5000; i++) {
+      // every 4 keys share a hash code to exercise collision nodes
+      Key key = new Key(i);
+      map = map.plus(key, i);
+      expected.put(key, i);
+    }
+    check(map.size()).is(5000);
+    check(map.equals(expected));
+    check(map.entrySet()).hasContentInAnyOrder(expected.entrySet());
+    check(map.get(new Key(4001))).is(4001);
+
+    PersistentHashMap<Key, Integer> removed = map;
+    for (int i = 0; i < 5000; i += 2) {
+      removed = removed.minus(new Key(i));
+      expected.remove(new Key(i));
+    }
+    check(removed.size()).is(2500);
+    check(removed.equals(expected));
+    check(removed.entrySet()).hasContentInAnyOrder(expected.entrySet());
+    check(map.size()).is(5000);
+    check(removed.minus(new Key(0))).same(removed);
+    check(map.plus(new Key(1), 1)).same(map);
+  }
+
+  @Test
+  public void set() {
+    PersistentHashSet<String> set = PersistentHashSet.<String>of().plus("a").plus("b");
+    check(set).hasContentInAnyOrder("a", "b");
+    check(set.minus("a")).isOf("b");
+    check(set.plus("a")).same(set);
+  }
+
+  @Test
+  public void encoding() {
+    ImmutableUsePersistentCollections value = ImmutableUsePersistentCollections.builder()
+        .addEvents("a")
+        .addEvents("b")
+        .putCounters("x", 1)
+        .addSeen(1L)
+        .build();
+
+    ImmutableUsePersistentCollections updated = value
+        .withEventsAdded("c")
+        .withCountersPut("y", 2)
+        .withSeenAdded(2L);
+
+    check(updated.events()).isOf("a", "b", "c");
+    check(updated.counters()).is(ImmutableMap.of("x", 1, "y", 2));
+    check(updated.seen()).is(ImmutableSet.of(1L, 2L));
+    check(value.events()).isOf("a", "b");
+
+    ImmutableUsePersistentCollections rebuilt = ImmutableUsePersistentCollections.builder()
+        .from(updated)
+        .addEvents("d")
+        .build();
+
+    check(rebuilt.events()).isOf("a", "b", "c", "d");
+    check(rebuilt.withEventsReplaced(0, "z").events()).isOf("z", "b", "c", "d");
+    check(rebuilt.withCountersRemoved("x").counters()).is(ImmutableMap.of("y", 2));
+    check(ImmutableUsePersistentCollections.builder().from(value).build()).is(value);
+    check(value.withEvents(ImmutableList.of("a", "b"))).is(value);
+  }
+
+  private static final class Key {
+    final int value;
+
+    Key(int value) {
+      this.value = value;
+    }
+
+    @Override
+    public int hashCode() {
+      return value / 4;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof Key && ((Key) obj).value == value;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.encodings;
+
+import java.lang.annotation.RetentionPolicy;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Set;
+import org.immutables.value.Value;
+
+@Value.Immutable
+@CompactInstantEnabled
+@CompactLocalDateEnabled
+@CompactEnumSetEnabled
+@CompactLatin1StringEnabled
+@CompactOptionalIntEnabled
+@CompactOptionalLongEnabled
+@CompactOptionalDoubleEnabled
+@CompactIntListEnabled
+@CompactStringMapEnabled
+public interface UseCompactEncodings {
+  Instant created();
+
+  LocalDate day();
+
+  Set<RetentionPolicy> policies();
+
+  String name();
+
+  OptionalInt count();
+
+  OptionalLong total();
+
+  OptionalDouble ratio();
+
+  List<Integer> numbers();
+
+  Map<String, String> labels();
+}
@@ -64,4 +64,51 @@ public @interface Functional {
   @Target({ElementType.METHOD})
   @Retention(RetentionPolicy.CLASS)
   public @interface BindParameters {}
+
+  /**
+   * Place on accessor methods of abstract value type to include attributes into generated
+   * {@code ordering()} comparator. Attributes are compared in order of {@link #value()}, then in
+   * declaration order. Comparator is specialized for each attribute type: primitives are compared
+   * without boxing, strings, enums and other {@link Comparable} types by {@code compareTo}, and
+   * collections (including ones with {@code @Value.NaturalOrder}) lexicographically by elements.
+   * <p>
+   * Functions class also gets {@code sortKeyBytes(value)} which returns normalized byte array key
+   * when none of the ordered attributes is a collection or arbitrary {@code Comparable}:
+   * comparing such keys as unsigned bytes lexicographically gives the same order as comparator,
+   * which enables radix and off-heap sorting. When ordered attributes are mandatory booleans,
+   * integral primitives (except {@code long}) and enums which fit in 63 bits together,
+   * {@code sortKey(value)} returning a {@code long} key is also generated.
+   * 
+   * <pre>
+   * &#064;Value.Immutable
+   * public abstract class Xyz {
+   *   &#064;Functional.OrderBy(1)
+   *   public abstract int getX();
+   * 
+   *   &#064;Functional.OrderBy(value = 2, descending = true)
+   *   public abstract String getY();
+   * }
+   * ...
+   * Collections.sort(list, XyzFunctions.ordering());
+   * </pre>
+   */
+  @Target({ElementType.METHOD})
+  @Retention(RetentionPolicy.CLASS)
+  public @interface OrderBy {
+    /**
+     * @return precedence of attribute in ordering, lower values are compared first
+     */
+    int value() default 0;
+
+    /**
+     * @return {@code true} to order by descending values of attribute
+     */
+    boolean descending() default false;
+
+    /**
+     * @return {@code true} to place {@code null} and absent optional values before present ones,
+     *         they are placed last by default. Not affected by {@link #descending()}.
+     */
+    boolean nullsFirst() default false;
+  }
 }
@@ -0,0 +1,138 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.func.fixture;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
+import com.google.common.primitives.UnsignedBytes;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+import static org.junit.Assert.fail;
+
+public class OrderingTest {
+  private static final String[] NAMES = {"", "a", "a\u0000", "a\u0000b", "ab", "b", "\u00ff", "\uffff"};
+  private static final double[] SCORES = {Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 2.5, Double.NaN};
+
+  @Test
+  public void orderingComparesByPrecedence() {
+    ImmutableSorted a = sorted(RetentionPolicy.SOURCE, 1.0, "x", 1L, "n");
+    ImmutableSorted b = sorted(RetentionPolicy.SOURCE, 2.0, "x", 1L, "n");
+    ImmutableSorted c = sorted(RetentionPolicy.CLASS, 3.0, "x", 1L, "n");
+    ImmutableSorted d = sorted(RetentionPolicy.CLASS, 3.0, null, 1L, "n");
+    ImmutableSorted e = sorted(RetentionPolicy.CLASS, 3.0, null, null, "n");
+
+    List<ImmutableSorted> list = new ArrayList<>();
+    Collections.addAll(list, e, d, c, b, a);
+    Collections.sort(list, SortedFunctions.ordering());
+
+    // descending score, absent label last, null serial first
+    check(list).isOf(b, a, c, e, d);
+  }
+
+  @Test
+  public void sortKeyBytesAgreeWithOrdering() {
+    Random random = new Random(1);
+    List<ImmutableSorted> values = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      values.add(sorted(
+          RetentionPolicy.values()[random.nextInt(3)],
+          SCORES[random.nextInt(SCORES.length)],
+          random.nextBoolean() ? NAMES[random.nextInt(NAMES.length)] : null,
+          random.nextBoolean() ? (long) random.nextInt(5) - 2 : null,
+          NAMES[random.nextInt(NAMES.length)]));
+    }
+    Comparator<byte[]> bytes = UnsignedBytes.lexicographicalComparator();
+    for (ImmutableSorted x : values) {
+      for (ImmutableSorted y : values) {
+        int expected = Integer.signum(SortedFunctions.ordering().compare(x, y));
+        check(Integer.signum(bytes.compare(SortedFunctions.sortKeyBytes(x), SortedFunctions.sortKeyBytes(y))))
+            .is(expected);
+      }
+    }
+  }
+
+  @Test
+  public void sortKeyAgreesWithOrdering() {
+    List<ImmutablePacked> values = new ArrayList<>();
+    for (boolean active : new boolean[] {false, true}) {
+      for (int rank : new int[] {Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE}) {
+        for (RetentionPolicy policy : RetentionPolicy.values()) {
+          for (short shard : new short[] {Short.MIN_VALUE, 0, Short.MAX_VALUE}) {
+            values.add(ImmutablePacked.builder()
+                .active(active)
+                .rank(rank)
+                .policy(policy)
+                .shard(shard)
+                .build());
+          }
+        }
+      }
+    }
+    Collections.shuffle(values, new Random(2));
+    for (ImmutablePacked x : values) {
+      check(PackedFunctions.sortKey(x) >= 0);
+      for (ImmutablePacked y : values) {
+        check(Integer.signum(Long.compare(PackedFunctions.sortKey(x), PackedFunctions.sortKey(y))))
+            .is(Integer.signum(PackedFunctions.ordering().compare(x, y)));
+      }
+    }
+  }
+
+  /**
+   * Enum which gained constants after key width was computed must not corrupt neighbouring bits.
+   */
+  @Test
+  public void sortKeyOrdinalOverflow() throws Exception {
+    Method ordinalKey = PackedFunctions.class.getDeclaredMethod("ordinalKey", Enum.class, long.class);
+    ordinalKey.setAccessible(true);
+
+    check(ordinalKey.invoke(null, RetentionPolicy.RUNTIME, 0x3L)).is(2L);
+    try {
+      ordinalKey.invoke(null, TimeUnit.DAYS, 0x3L);
+      fail();
+    } catch (InvocationTargetException ex) {
+      check(ex.getCause()).isA(IllegalStateException.class);
+    }
+  }
+
+  @Test
+  public void elementsCompareLexicographically() {
+    ImmutableTagged a = ImmutableTagged.builder().name("z").addTags("a", "b").build();
+    ImmutableTagged b = ImmutableTagged.builder().name("a").addTags("b", "a", "c").build();
+    ImmutableTagged c = ImmutableTagged.builder().name("a").addTags("c").build();
+
+    check(Ordering.from(TaggedFunctions.ordering()).sortedCopy(ImmutableSet.of(c, b, a))).isOf(a, b, c);
+  }
+
+  private static ImmutableSorted sorted(RetentionPolicy policy, double score, String label, Long serial, String name) {
+    return ImmutableSorted.builder()
+        .policy(policy)
+        .score(score)
+        .label(com.google.common.base.Optional.fromNullable(label))
+        .serial(serial)
+        .name(name)
+        .build();
+  }
+}
@@ -0,0 +1,69 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.func.fixture;
+
+import com.google.common.base.Optional;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.immutables.func.Functional;
+import org.immutables.value.Value;
+
+@Value.Immutable
+public interface Sorted {
+  @Functional.OrderBy(1)
+  RetentionPolicy policy();
+
+  @Functional.OrderBy(value = 2, descending = true)
+  double score();
+
+  @Functional.OrderBy(3)
+  Optional<String> label();
+
+  @Functional.OrderBy(value = 4, nullsFirst = true)
+  @Nullable
+  Long serial();
+
+  @Functional.OrderBy(5)
+  String name();
+
+  List<Integer> ignored();
+
+  @Value.Immutable
+  interface Packed {
+    @Functional.OrderBy(1)
+    boolean active();
+
+    @Functional.OrderBy(value = 2, descending = true)
+    int rank();
+
+    @Functional.OrderBy(3)
+    RetentionPolicy policy();
+
+    @Functional.OrderBy(4)
+    short shard();
+  }
+
+  @Value.Immutable
+  interface Tagged {
+    @Functional.OrderBy
+    @Value.NaturalOrder
+    java.util.SortedSet<String> tags();
+
+    @Functional.OrderBy(1)
+    String name();
+  }
+}
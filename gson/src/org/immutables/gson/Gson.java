@@ -27,6 +27,7 @@ import java.lang.annotation.Target;
 import java.util.Map;
 import java.util.ServiceLoader;
 import org.immutables.gson.adapter.ExpectedSubtypesAdapter;
+import org.immutables.gson.adapter.IndexedTypeAdapterFactory;
 
 /**
  * Gson umbrella annotation used to group nested Gson-related annotations.
@@ -60,6 +61,11 @@ public @interface Gson {
    * com.google.gson.Gson gson = gsonBuilder.create();
    * </pre>
    * <p>
+   * With many registered factories, Gson asks each of them in turn for every new type. Use
+   * {@link IndexedTypeAdapterFactory#loadServices()} to register all of them as a single factory
+   * which finds the responsible generated factory by type, keeping the precedence of separate
+   * registration, where the last registered factory wins.
+   * <p>
    * Certain Gson options are supported for immutable objects in deliberate fashion:
    * <ul>
    * <li>{@link GsonBuilder#serializeNulls()} - When enabled, {@code null} fields and empty array
@@ -103,6 +109,32 @@ public @interface Gson {
      */
     boolean nullAsDefault() default false;
 
+    /**
+     * When {@code lazyAdapters=true}, type adapters for attribute types are obtained from
+     * {@link com.google.gson.Gson} on first use of the attribute rather than when the adapter of
+     * the enclosing type is created. This avoids building the whole graph of reachable adapters
+     * on the first use of a top level type. Concurrent first uses may resolve the same adapter
+     * more than once, which is harmless as Gson caches adapters.
+     * <p>
+     * Generated factories also have static {@code warmUp(Gson, Executor)} method to pre-build
+     * adapters for all types they handle, including lazily resolved ones, using supplied executor
+     * at startup.
+     * @return {@code true} if enabled, by default is {@code false}
+     */
+    boolean lazyAdapters() default false;
+
+    /**
+     * When {@code bypassBuilder=true}, generated type adapters read attributes into local
+     * variables and create instances using constructor instead of builder, saving builder
+     * allocation and intermediate collection copies per object read. Constructor still runs
+     * validation and {@code @Value.Check} methods. This applies only to types which have all
+     * attributes as constructor parameters (see {@code @Value.Parameter} and
+     * {@code @Value.Style(allParameters = true)}), without default attributes or arrays; other
+     * types are read using builder as usual. JSON representation stays the same.
+     * @return {@code true} if enabled, by default is {@code false}
+     */
+    boolean bypassBuilder() default false;
+
     /**
      * You can set {@code metainfService = false} to disable generation of meta-inf services.
      * @return {@code true} if metainf services are enabled, by default is {@code true}
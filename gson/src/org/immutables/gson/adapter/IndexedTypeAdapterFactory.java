@@ -0,0 +1,147 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Type adapter factory which aggregates many other factories and dispatches by raw type using
+ * identity hash lookup. Gson asks each registered factory in turn for each new type, so with
+ * hundreds of registered {@code GsonAdapters*} factories creation of adapters becomes a
+ * noticeable part of the warmup. Generated factories expose the types they adapt, so this factory
+ * finds the responsible one directly, while other factories, which do not expose adapted types,
+ * are still asked for every type.
+ * <p>
+ * Precedence is the same as if each factory was registered with
+ * {@link com.google.gson.GsonBuilder#registerTypeAdapterFactory(TypeAdapterFactory)} in the same
+ * order: factories are asked starting from the last registered one, so when several factories
+ * adapt the same type, the last one wins, regardless of whether it is indexed or not.
+ * 
+ * <pre>
+ * Gson gson = new GsonBuilder()
+ *     .registerTypeAdapterFactory(IndexedTypeAdapterFactory.loadServices())
+ *     .create();
+ * </pre>
+ */
+public final class IndexedTypeAdapterFactory implements TypeAdapterFactory {
+  private static final String ADAPTED_TYPES_METHOD = "adaptedTypes";
+
+  /** Candidate factories by adapted type, each list starts from the last registered factory. */
+  private final Map<Class<?>, List<Registered>> index = new IdentityHashMap<>();
+  /** Factories without adapted types, starting from the last registered one. */
+  private final List<Registered> unindexed = new ArrayList<>();
+
+  private IndexedTypeAdapterFactory(Iterable<? extends TypeAdapterFactory> factories) {
+    List<TypeAdapterFactory> registered = new ArrayList<>();
+    for (TypeAdapterFactory factory : factories) {
+      registered.add(factory);
+    }
+    for (int order = registered.size() - 1; order >= 0; order--) {
+      Registered r = new Registered(order, registered.get(order));
+      @Nullable Set<Class<?>> types = adaptedTypes(r.factory);
+      if (types != null) {
+        for (Class<?> type : types) {
+          @Nullable List<Registered> candidates = index.get(type);
+          if (candidates == null) {
+            candidates = new ArrayList<>(1);
+            index.put(type, candidates);
+          }
+          candidates.add(r);
+        }
+      } else {
+        unindexed.add(r);
+      }
+    }
+  }
+
+  /**
+   * Creates index of supplied factories.
+   * @param factories factories to aggregate
+   * @return indexed type adapter factory
+   */
+  public static IndexedTypeAdapterFactory of(Iterable<? extends TypeAdapterFactory> factories) {
+    return new IndexedTypeAdapterFactory(factories);
+  }
+
+  /**
+   * Creates index of all factories registered as {@link TypeAdapterFactory} service providers.
+   * @return indexed type adapter factory
+   * @see ServiceLoader
+   */
+  public static IndexedTypeAdapterFactory loadServices() {
+    return of(ServiceLoader.load(TypeAdapterFactory.class));
+  }
+
+  @Override
+  public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+    @Nullable List<Registered> candidates = index.get(type.getRawType());
+    int indexedCount = candidates != null ? candidates.size() : 0;
+    int unindexedCount = unindexed.size();
+    // merge both lists, which are already sorted from the last registered factory
+    for (int i = 0, u = 0; i < indexedCount || u < unindexedCount;) {
+      Registered next = u == unindexedCount
+          || (i < indexedCount && candidates.get(i).order > unindexed.get(u).order)
+          ? candidates.get(i++)
+          : unindexed.get(u++);
+
+      @Nullable TypeAdapter<T> adapter = next.factory.create(gson, type);
+      if (adapter != null) {
+        return adapter;
+      }
+    }
+    return null;
+  }
+
+  private static final class Registered {
+    final int order;
+    final TypeAdapterFactory factory;
+
+    Registered(int order, TypeAdapterFactory factory) {
+      this.order = order;
+      this.factory = factory;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static @Nullable Set<Class<?>> adaptedTypes(TypeAdapterFactory factory) {
+    try {
+      Method method = factory.getClass().getMethod(ADAPTED_TYPES_METHOD);
+      if (Set.class.isAssignableFrom(method.getReturnType())) {
+        return (Set<Class<?>>) method.invoke(factory);
+      }
+    } catch (Exception ex) {
+      // not a generated factory, will be asked in order
+    }
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return "IndexedTypeAdapterFactory(" + index.size() + " indexed types, "
+        + unindexed.size() + " unindexed factories)";
+  }
+}
@@ -0,0 +1,173 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.io.EOFException;
+import java.io.IOException;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.immutables.gson.stream.GsonMessageBodyProvider.ExceptionHandler;
+import org.immutables.gson.stream.GsonMessageBodyProvider.GsonOptions;
+
+/**
+ * Reads single JSON value from chunks of bytes as they arrive, without blocking on input. Bytes
+ * are fed to Jackson's non-blocking parser and parsed tokens are buffered, the Gson type adapter
+ * is invoked only after a complete value is buffered. Total number of fed bytes is limited, so
+ * the memory used by buffered tokens stays bounded. Requires Jackson 2.9 or later.
+ * <p>
+ * Typical use from asynchronous servlet or network handler is to call {@link #feed} for each
+ * received chunk, {@link #endOfInput()} when input ends, and then to get {@link #value()}.
+ * @param <T> type of value to read
+ * @see GsonMessageBodyProvider#asyncReader(java.lang.reflect.Type)
+ */
+@NotThreadSafe
+public final class AsyncJsonReader<T> {
+  private final Gson gson;
+  private final TypeToken<T> type;
+  private final GsonOptions options;
+  private final ExceptionHandler exceptionHandler;
+  private final long maxBytes;
+  private final JsonParser parser;
+  private final ByteArrayFeeder feeder;
+  private @Nullable TokenBuffer buffer;
+  private long bytes;
+  private int depth;
+  private boolean complete;
+  private boolean read;
+  private @Nullable T value;
+
+  AsyncJsonReader(
+      JsonFactory factory,
+      Gson gson,
+      TypeToken<T> type,
+      GsonOptions options,
+      ExceptionHandler exceptionHandler,
+      long maxBytes) throws IOException {
+    this.gson = gson;
+    this.type = type;
+    this.options = options;
+    this.exceptionHandler = exceptionHandler;
+    this.maxBytes = maxBytes;
+    this.parser = factory.createNonBlockingByteArrayParser();
+    this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    this.buffer = new TokenBuffer(parser);
+  }
+
+  /**
+   * Feeds next chunk of input. Bytes are consumed before method returns, so the array could be
+   * reused for the next chunk.
+   * @param bytes array with input bytes
+   * @param offset offset of the first byte of chunk
+   * @param length number of bytes in chunk
+   * @return {@code true} if complete value was read, only whitespace may follow
+   * @throws IOException if input is malformed or exceeds the limit
+   */
+  public boolean feed(byte[] bytes, int offset, int length) throws IOException {
+    try {
+      this.bytes += length;
+      if (this.bytes > maxBytes) {
+        throw new IOException("JSON entity exceeds limit of " + maxBytes + " bytes");
+      }
+      feeder.feedInput(bytes, offset, offset + length);
+      bufferAvailableTokens();
+      return complete;
+    } catch (Exception ex) {
+      throw readFailure(ex);
+    }
+  }
+
+  /**
+   * Signals end of input.
+   * @throws IOException if input ended before value was complete
+   */
+  public void endOfInput() throws IOException {
+    try {
+      feeder.endOfInput();
+      bufferAvailableTokens();
+      if (!complete) {
+        throw new EOFException("End of input before complete JSON value at " + parser.getCurrentLocation());
+      }
+    } catch (Exception ex) {
+      throw readFailure(ex);
+    }
+  }
+
+  /**
+   * @return {@code true} if complete value is buffered and {@link #value()} could be read.
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * Reads buffered value using Gson type adapter. Can be called only when value is complete.
+   * @return value
+   * @throws IOException if value cannot be read by type adapter
+   */
+  public T value() throws IOException {
+    if (!complete) {
+      throw new IllegalStateException("JSON value is not complete yet");
+    }
+    if (!read) {
+      try {
+        JsonParserReader reader = new JsonParserReader(buffer.asParser());
+        options.setReaderOptions(reader);
+        value = gson.getAdapter(type).read(reader);
+      } catch (Exception ex) {
+        throw readFailure(ex);
+      }
+      read = true;
+      buffer = null;
+    }
+    return value;
+  }
+
+  /**
+   * Passes failure to the exception handler, same as {@link GsonMessageBodyProvider#readFrom}
+   * does, runtime exceptions are wrapped in {@link IOException}.
+   * @return exception to rethrow if handler did not throw its own
+   */
+  private IOException readFailure(Exception exception) throws IOException {
+    IOException readException = exception instanceof IOException
+        ? (IOException) exception
+        : new IOException(exception);
+    exceptionHandler.onRead(gson, readException);
+    return readException;
+  }
+
+  private void bufferAvailableTokens() throws IOException {
+    for (JsonToken token; (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE;) {
+      if (complete) {
+        throw new JsonParseException(parser, "Unexpected content after complete JSON value");
+      }
+      buffer.copyCurrentEvent(parser);
+      if (token.isStructStart()) {
+        depth++;
+      } else if (token.isStructEnd()) {
+        depth--;
+      }
+      complete = depth == 0;
+    }
+  }
+}
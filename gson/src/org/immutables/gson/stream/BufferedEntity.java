@@ -0,0 +1,161 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Growable byte buffer which collects serialized entity up to a limit, so that its length is
+ * known before anything is written to the entity stream. When limit is exceeded, buffered bytes
+ * are spilled to the target stream and the rest is written through, or, if there's no target,
+ * writing fails with {@link Overflow}. Instances are recycled per thread, see {@link #acquire}.
+ */
+@NotThreadSafe
+final class BufferedEntity extends OutputStream {
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final ThreadLocal<SoftReference<BufferedEntity>> RECYCLED = new ThreadLocal<>();
+
+  private byte[] bytes = new byte[INITIAL_CAPACITY];
+  private int count;
+  private int limit;
+  private boolean inUse;
+  private boolean spilled;
+  private @Nullable OutputStream target;
+  /** Entity which was serialized into this buffer, if buffer is retained for later write. */
+  @Nullable Object entity;
+
+  /**
+   * Returns buffer recycled for current thread or a new one if recycled one is in use.
+   * @param limit maximum number of bytes to buffer
+   * @param target stream to spill to when limit is exceeded, if {@code null} writing beyond limit
+   *          will throw {@link Overflow}
+   * @return buffer which should be {@link #release() released} after use
+   */
+  static BufferedEntity acquire(int limit, @Nullable OutputStream target) {
+    @Nullable SoftReference<BufferedEntity> reference = RECYCLED.get();
+    @Nullable BufferedEntity buffer = reference != null ? reference.get() : null;
+    if (buffer == null) {
+      buffer = new BufferedEntity();
+      RECYCLED.set(new SoftReference<>(buffer));
+    } else if (buffer.inUse) {
+      buffer = new BufferedEntity();
+    }
+    buffer.inUse = true;
+    buffer.limit = limit;
+    buffer.target = target;
+    return buffer;
+  }
+
+  /** Resets buffer so it could be acquired again, backing array is kept. */
+  void release() {
+    inUse = false;
+    spilled = false;
+    count = 0;
+    target = null;
+    entity = null;
+  }
+
+  /**
+   * @return {@code true} if limit was exceeded and bytes were written through to the target
+   */
+  boolean isSpilled() {
+    return spilled;
+  }
+
+  int size() {
+    return count;
+  }
+
+  /**
+   * Writes buffered bytes to the stream.
+   * @param stream output stream
+   * @throws IOException if stream write failed
+   */
+  void writeTo(OutputStream stream) throws IOException {
+    stream.write(bytes, 0, count);
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (spilled) {
+      target.write(b);
+      return;
+    }
+    if (ensureCapacity(1)) {
+      bytes[count++] = (byte) b;
+    } else {
+      target.write(b);
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int offset, int length) throws IOException {
+    if (spilled) {
+      target.write(b, offset, length);
+      return;
+    }
+    if (ensureCapacity(length)) {
+      System.arraycopy(b, offset, bytes, count, length);
+      count += length;
+    } else {
+      target.write(b, offset, length);
+    }
+  }
+
+  /** @return {@code true} if bytes will fit buffer, {@code false} if buffer was spilled */
+  private boolean ensureCapacity(int length) throws IOException {
+    int required = count + length;
+    if (required > limit || required < 0) {
+      if (target == null) {
+        throw Overflow.INSTANCE;
+      }
+      spilled = true;
+      target.write(bytes, 0, count);
+      return false;
+    }
+    if (required > bytes.length) {
+      bytes = Arrays.copyOf(bytes, Math.min(limit, Math.max(required, bytes.length * 2)));
+    }
+    return true;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    // Buffered bytes are held until entity is complete, only spilled stream is flushed
+    if (spilled) {
+      target.flush();
+    }
+  }
+
+  /** Signals that entity doesn't fit buffer, preallocated as it's used for control flow. */
+  static final class Overflow extends IOException {
+    static final Overflow INSTANCE = new Overflow();
+
+    private Overflow() {
+      super("Entity exceeds buffer limit");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+}
@@ -21,14 +21,15 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.JsonParseException;
-import com.google.gson.TypeAdapterFactory;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -38,17 +39,23 @@ import java.io.Reader;
 import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.ServiceLoader;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import javax.annotation.Nullable;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -57,12 +64,22 @@ import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.Provider;
+import org.immutables.gson.adapter.IndexedTypeAdapterFactory;
 import org.immutables.metainf.Metainf;
 import org.immutables.value.Value;
 import org.immutables.value.Value.Style.ImplementationVisibility;
 
 /**
  * Gson serialization provider for JAX-RS 1.0 and JAX-RS 2.0.
+ * <p>
+ * Besides regular types, top level JSON arrays could be streamed: {@link Iterator},
+ * {@link Iterable} and {@code java.util.stream.Stream} entities are written element by element,
+ * and {@link Iterator} or {@link Iterable} entity parameters are read lazily as iteration
+ * proceeds.
+ * <p>
+ * Writers and buffers are recycled per thread. Small entities could be serialized ahead into a
+ * buffer so that they are sent with known {@code Content-Length}, see
+ * {@link GsonProviderOptions#preSerializeLimit()}.
  */
 @Provider
 @Metainf.Service
@@ -70,10 +87,24 @@ import org.immutables.value.Value.Style.ImplementationVisibility;
 @Produces(MediaType.WILDCARD)
 @SuppressWarnings({"resource", "unused"})
 public class GsonMessageBodyProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+  /** Media type of Smile binary JSON format. */
+  public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+  /** Media type of Smile binary JSON format. */
+  public static final MediaType APPLICATION_SMILE_TYPE = new MediaType("application", "x-jackson-smile");
+  /** Media type of CBOR binary format. */
+  public static final String APPLICATION_CBOR = "application/cbor";
+  /** Media type of CBOR binary format. */
+  public static final MediaType APPLICATION_CBOR_TYPE = new MediaType("application", "cbor");
+
   private final Gson gson;
   private final Set<MediaType> mediaTypes;
   private final Streamer streamer;
+  private final Map<MediaType, Streamer> dialectStreamers;
   private final ExceptionHandler exceptionHandler;
+  private final GsonOptions gsonOptions;
+  private final long maxAsyncEntityBytes;
+  private final int preSerializeLimit;
+  private final ThreadLocal<BufferedEntity> preSerialized = new ThreadLocal<>();
 
   /**
    * Creates new provider with internally configured {@link Gson} instance,
@@ -90,15 +121,66 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
   public GsonMessageBodyProvider(GsonProviderOptions options) {
     this.gson = options.gson();
     this.mediaTypes = mediaSetFrom(options.mediaTypes());
-    this.streamer = createStreamer(options.allowJackson(),
-        new GsonOptions(options.gson(), options.lenient()));
+    this.gsonOptions = new GsonOptions(options.gson(), options.lenient());
+    this.streamer = createStreamer(options.allowJackson(), gsonOptions);
+    this.dialectStreamers = createDialectStreamers(options.jsonFactories(), gsonOptions);
     this.exceptionHandler = options.exceptionHandler();
+    this.maxAsyncEntityBytes = options.maxAsyncEntityBytes();
+    this.preSerializeLimit = options.preSerializeLimit();
+  }
+
+  /**
+   * Creates reader which parses entity of the given type from chunks of bytes as they arrive,
+   * so that no thread is blocked waiting for a slow client. This is an alternative to
+   * {@link #readFrom} for asynchronous servlet or NIO servers. Requires Jackson 2.9 or later.
+   * @param <T> type of entity
+   * @param type type of entity
+   * @return new non-blocking reader for a single entity
+   * @throws IOException if parser cannot be created
+   * @see GsonProviderOptions#maxAsyncEntityBytes()
+   */
+  @SuppressWarnings("unchecked")
+  public <T> AsyncJsonReader<T> asyncReader(Type type) throws IOException {
+    return new AsyncJsonReader<>(
+        AsyncJsonFactory.FACTORY,
+        gson,
+        (TypeToken<T>) TypeToken.get(type),
+        gsonOptions,
+        exceptionHandler,
+        maxAsyncEntityBytes);
+  }
+
+  /** Shared factory is initialized on first use, so Jackson is not required unless used. */
+  private static final class AsyncJsonFactory {
+    static final JsonFactory FACTORY = new JsonFactory();
+  }
+
+  private static Map<MediaType, Streamer> createDialectStreamers(
+      Map<MediaType, JsonFactory> factories,
+      GsonOptions options) {
+    if (factories.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<MediaType, Streamer> streamers = new HashMap<>();
+    for (Map.Entry<MediaType, JsonFactory> e : factories.entrySet()) {
+      streamers.put(e.getKey(), new JacksonStreamer(e.getValue(), options));
+    }
+    return streamers;
+  }
+
+  private Streamer streamerFor(MediaType mediaType) {
+    @Nullable Streamer dialectStreamer = dialectStreamers.get(mediaType);
+    return dialectStreamer != null ? dialectStreamer : streamer;
+  }
+
+  private boolean isHandled(MediaType mediaType) {
+    return mediaTypes.contains(mediaType) || dialectStreamers.containsKey(mediaType);
   }
 
   private static Streamer createStreamer(boolean allowJacksonIfAvailable, GsonOptions options) {
     if (allowJacksonIfAvailable) {
       try {
-        return new JacksonStreamer(options);
+        return new JacksonStreamer(new JsonFactory(), options);
       } catch (Throwable ex) {
         // cannot load jackson streamer class, fallback to default
       }
@@ -115,17 +197,44 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
 
   @Override
   public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
-    return mediaTypes.contains(mediaType) && !UNSUPPORTED_TYPES.contains(type);
+    return isHandled(mediaType) && !UNSUPPORTED_TYPES.contains(type);
   }
 
   @Override
   public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
-    return mediaTypes.contains(mediaType) && !UNSUPPORTED_TYPES.contains(type);
+    return isHandled(mediaType) && !UNSUPPORTED_TYPES.contains(type);
   }
 
   @Override
   public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
-    return -1;
+    if (preSerializeLimit <= 0
+        || t instanceof StreamingOutput
+        || t instanceof CharSequence
+        || isStreamedWrite(t)) {
+      return -1;
+    }
+    // JAX-RS 1.0 runtime calls writeTo right after getSize on the same thread,
+    // so serialized bytes are retained for it
+    discardPreSerialized();
+    BufferedEntity buffer = BufferedEntity.acquire(preSerializeLimit, null);
+    try {
+      streamerFor(mediaType).write(gson, genericType, t, buffer);
+    } catch (IOException ex) {
+      // entity doesn't fit or cannot be serialized, failure will be reported by writeTo
+      buffer.release();
+      return -1;
+    }
+    buffer.entity = t;
+    preSerialized.set(buffer);
+    return buffer.size();
+  }
+
+  private void discardPreSerialized() {
+    @Nullable BufferedEntity buffer = preSerialized.get();
+    if (buffer != null) {
+      preSerialized.remove();
+      buffer.release();
+    }
   }
 
   @Override
@@ -139,6 +248,20 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
       OutputStream entityStream)
       throws IOException,
         WebApplicationException {
+    // Buffer retained by getSize is taken whatever entity arrives, so that buffer of a response
+    // which was never written, like for HEAD request, does not stay pinned to the thread
+    @Nullable BufferedEntity buffer = preSerialized.get();
+    if (buffer != null) {
+      preSerialized.remove();
+      try {
+        if (buffer.entity == t) {
+          buffer.writeTo(entityStream);
+          return;
+        }
+      } finally {
+        buffer.release();
+      }
+    }
     // Special case of unsupported type, where surrounding framework
     // may have, mistakengly, chosen this provider based on media type, but when
     // response will be streamed using StreamingOutput or is already prepared using
@@ -150,20 +273,49 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
     if (t instanceof CharSequence) {
       // UTF-8 used because it should be considered default encoding for the JSON-family
       // of media types
-      OutputStreamWriter writer = new OutputStreamWriter(entityStream, StandardCharsets.UTF_8);
-      writer.append((CharSequence) t);
-      writer.flush();
+      Utf8Writer writer = Utf8Writer.acquire(entityStream);
+      try {
+        writer.append((CharSequence) t);
+        writer.flush();
+      } finally {
+        writer.release();
+      }
       return;
     }
     // Standard way of handling writing using gson
     try {
-      streamer.write(gson, genericType, t, entityStream);
+      if (preSerializeLimit > 0 && !isStreamedWrite(t)) {
+        writeBuffered(t, genericType, mediaType, httpHeaders, entityStream);
+      } else {
+        streamerFor(mediaType).write(gson, genericType, t, entityStream);
+      }
     } catch (IOException ex) {
       exceptionHandler.onWrite(gson, ex);
       throw ex;
     }
   }
 
+  private void writeBuffered(
+      Object t,
+      Type genericType,
+      MediaType mediaType,
+      @Nullable MultivaluedMap<String, Object> httpHeaders,
+      OutputStream entityStream) throws IOException {
+    BufferedEntity buffer = BufferedEntity.acquire(preSerializeLimit, entityStream);
+    try {
+      streamerFor(mediaType).write(gson, genericType, t, buffer);
+      if (!buffer.isSpilled()) {
+        // Headers could still be modified as nothing was written to the entity stream yet
+        if (httpHeaders != null) {
+          httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, String.valueOf(buffer.size()));
+        }
+        buffer.writeTo(entityStream);
+      }
+    } finally {
+      buffer.release();
+    }
+  }
+
   @Override
   public Object readFrom(
       Class<Object> type,
@@ -175,7 +327,7 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
       throws IOException,
         WebApplicationException {
     try {
-      return streamer.read(gson, genericType, entityStream);
+      return streamerFor(mediaType).read(gson, genericType, entityStream, exceptionHandler);
     } catch (IOException ex) {
       exceptionHandler.onRead(gson, ex);
       throw ex;
@@ -185,7 +337,7 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
   private interface Streamer {
     void write(Gson gson, Type type, Object object, OutputStream stream) throws IOException;
 
-    Object read(Gson gson, Type type, InputStream stream) throws IOException;
+    Object read(Gson gson, Type type, InputStream stream, ExceptionHandler exceptionHandler) throws IOException;
   }
 
   private static class GsonStreamer implements Streamer {
@@ -200,12 +352,13 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
     @Override
     public void write(Gson gson, Type type, Object object, OutputStream stream) throws IOException {
       @Nullable JsonWriter writer = null;
+      Utf8Writer utf8Writer = Utf8Writer.acquire(stream);
       boolean wasOriginalException = false;
       try {
-        writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(stream, CHARSET_NAME)));
+        writer = new JsonWriter(utf8Writer);
         options.setWriterOptions(writer);
 
-        gson.getAdapter((TypeToken<Object>) TypeToken.get(type)).write(writer, object);
+        writeEntity(gson, type, object, writer);
       } catch (IOException ex) {
         wasOriginalException = true;
         throw ex;
@@ -213,27 +366,34 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
         wasOriginalException = true;
         throw new IOException(ex);
       } finally {
-        if (writer != null) {
-          try {
-            // underlying stream should not be closed, just flushing
-            writer.flush();
-          } catch (IOException ex) {
-            if (!wasOriginalException) {
-              throw ex;
+        try {
+          if (writer != null) {
+            try {
+              // underlying stream should not be closed, just flushing
+              writer.flush();
+            } catch (IOException ex) {
+              if (!wasOriginalException) {
+                throw ex;
+              }
             }
           }
+        } finally {
+          utf8Writer.release();
         }
       }
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public Object read(Gson gson, Type type, InputStream stream) throws IOException {
+    public Object read(Gson gson, Type type, InputStream stream, ExceptionHandler exceptionHandler) throws IOException {
       @Nullable JsonReader reader = null;
       try {
         reader = createJsonReader(new BufferedReader(new InputStreamReader(stream, CHARSET_NAME)));
         options.setReaderOptions(reader);
 
+        if (isStreamedRead(type)) {
+          return streamedEntity(gson, type, reader, stream, exceptionHandler);
+        }
         return gson.getAdapter((TypeToken<Object>) TypeToken.get(type)).read(reader);
       } catch (IOException ex) {
         throw ex;
@@ -264,13 +424,13 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
   }
 
   private static class JacksonStreamer implements Streamer {
-    private static final JsonFactory JSON_FACTORY = new JsonFactory()
-        .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
-        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
-
+    private final JsonFactory factory;
     private final GsonOptions options;
 
-    JacksonStreamer(GsonOptions options) {
+    JacksonStreamer(JsonFactory factory, GsonOptions options) {
+      this.factory = factory.copy()
+          .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+          .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
       this.options = options;
     }
 
@@ -280,14 +440,14 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
       @Nullable JsonGeneratorWriter writer = null;
       boolean wasOriginalException = false;
       try {
-        JsonGenerator generator = JSON_FACTORY.createGenerator(stream);
-        if (options.prettyPrinting) {
+        JsonGenerator generator = factory.createGenerator(stream);
+        if (options.prettyPrinting && !factory.canHandleBinaryNatively()) {
           generator.useDefaultPrettyPrinter();
         }
         writer = new JsonGeneratorWriter(generator);
         options.setWriterOptions(writer);
 
-        gson.getAdapter((TypeToken<Object>) TypeToken.get(type)).write(writer, object);
+        writeEntity(gson, type, object, writer);
       } catch (IOException ex) {
         wasOriginalException = true;
         throw ex;
@@ -297,7 +457,7 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
       } finally {
         if (writer != null) {
           try {
-            // note that stream is not closed here as per JSON_FACTORY configuration
+            // note that stream is not closed here as per factory configuration
             writer.close();
           } catch (IOException ex) {
             if (!wasOriginalException) {
@@ -310,11 +470,17 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
 
     @SuppressWarnings("unchecked")
     @Override
-    public Object read(Gson gson, Type type, InputStream stream) throws IOException {
+    public Object read(Gson gson, Type type, InputStream stream, ExceptionHandler exceptionHandler) throws IOException {
       @Nullable JsonReader reader = null;
       try {
-        reader = new JsonParserReader(JSON_FACTORY.createParser(stream));
+        reader = new JsonParserReader(factory.createParser(stream));
         options.setReaderOptions(reader);
+        if (isStreamedRead(type)) {
+          Object entity = streamedEntity(gson, type, reader, stream, exceptionHandler);
+          // reader will be closed by the streamed entity after the end of array
+          reader = null;
+          return entity;
+        }
         return gson.getAdapter((TypeToken<Object>) TypeToken.get(type)).read(reader);
       } catch (IOException ex) {
         throw ex;
@@ -323,7 +489,7 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
       } finally {
         if (reader != null) {
           try {
-            // note that stream is not closed here as per JSON_FACTORY configuration
+            // note that stream is not closed here as per factory configuration
             reader.close();
           } catch (IOException ex) {
             // ignore io exception of reader close as not important
@@ -333,6 +499,251 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
     }
   }
 
+  /**
+   * Writes entity. Instances of {@link Iterator}, {@link Iterable} which are not collections, and
+   * {@code java.util.stream.Stream} are written as JSON array element by element, flushing
+   * the output every {@value #FLUSH_EVERY_ELEMENTS} elements, so they don't need to be held in
+   * memory entirely.
+   */
+  @SuppressWarnings("unchecked")
+  private static void writeEntity(Gson gson, Type type, Object object, JsonWriter writer) throws IOException {
+    @Nullable Iterator<?> elements = streamedElements(object);
+    if (elements == null) {
+      gson.getAdapter((TypeToken<Object>) TypeToken.get(type)).write(writer, object);
+      return;
+    }
+    try {
+      TypeAdapter<Object> adapter = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(elementType(type)));
+      writer.beginArray();
+      for (int count = 1; elements.hasNext(); count++) {
+        adapter.write(writer, elements.next());
+        if (count % FLUSH_EVERY_ELEMENTS == 0) {
+          writer.flush();
+        }
+      }
+      writer.endArray();
+    } finally {
+      if (isBaseStream(object)) {
+        // release resources held by the stream, like open files or cursors
+        closeBaseStream((AutoCloseable) object);
+      }
+    }
+  }
+
+  private static boolean isBaseStream(Object object) {
+    return BASE_STREAM_ITERATOR != null && BASE_STREAM_ITERATOR.getDeclaringClass().isInstance(object);
+  }
+
+  private static void closeBaseStream(AutoCloseable stream) {
+    try {
+      stream.close();
+    } catch (Exception ex) {
+      throw new JsonIOException(ex);
+    }
+  }
+
+  /**
+   * Streamed entities are not buffered ahead as elements could be produced only once and should
+   * reach the client as they are written.
+   */
+  private static boolean isStreamedWrite(Object object) {
+    return object instanceof Iterator<?>
+        || (object instanceof Iterable<?> && !(object instanceof Collection<?>))
+        || isBaseStream(object);
+  }
+
+  private static @Nullable Iterator<?> streamedElements(Object object) {
+    if (object instanceof Iterator<?>) {
+      return (Iterator<?>) object;
+    }
+    if (object instanceof Iterable<?> && !(object instanceof Collection<?>)) {
+      return ((Iterable<?>) object).iterator();
+    }
+    if (isBaseStream(object)) {
+      try {
+        return (Iterator<?>) BASE_STREAM_ITERATOR.invoke(object);
+      } catch (Exception ex) {
+        throw new JsonIOException(ex);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Reading of {@link Iterator} or {@link Iterable} entity types returns lazily parsed elements
+   * of a JSON array. Elements are read from the entity stream as iteration proceeds, so
+   * processing may start before the whole array is received. Iterable can be iterated only once.
+   * <p>
+   * Returned entity is {@link Closeable}, so that JAX-RS runtime will not close the entity stream
+   * right after {@link #readFrom}. The entity stream is closed after the end of the array, on
+   * the first error, or when the entity is closed before it is fully read.
+   */
+  private static boolean isStreamedRead(Type type) {
+    Class<?> raw = TypeToken.get(type).getRawType();
+    return raw == Iterator.class || raw == Iterable.class;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object streamedEntity(
+      Gson gson,
+      Type type,
+      JsonReader reader,
+      InputStream stream,
+      ExceptionHandler exceptionHandler) {
+    ElementIterator elements = new ElementIterator(
+        gson,
+        reader,
+        stream,
+        (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(elementType(type))),
+        exceptionHandler);
+
+    if (TypeToken.get(type).getRawType() == Iterator.class) {
+      return elements;
+    }
+    return new ElementIterable(elements);
+  }
+
+  private static Type elementType(Type type) {
+    if (type instanceof ParameterizedType) {
+      Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+      if (arguments.length == 1) {
+        return arguments[0];
+      }
+    }
+    return Object.class;
+  }
+
+  private static final class ElementIterable implements Iterable<Object>, Closeable {
+    private final ElementIterator elements;
+    private boolean iterated;
+
+    ElementIterable(ElementIterator elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public synchronized Iterator<Object> iterator() {
+      if (iterated) {
+        throw new IllegalStateException("Streamed entity could be iterated only once");
+      }
+      iterated = true;
+      return elements;
+    }
+
+    @Override
+    public void close() throws IOException {
+      elements.close();
+    }
+  }
+
+  private static final class ElementIterator implements Iterator<Object>, Closeable {
+    private final Gson gson;
+    private final JsonReader reader;
+    private final InputStream stream;
+    private final TypeAdapter<Object> adapter;
+    private final ExceptionHandler exceptionHandler;
+    private boolean started;
+    private boolean finished;
+
+    ElementIterator(
+        Gson gson,
+        JsonReader reader,
+        InputStream stream,
+        TypeAdapter<Object> adapter,
+        ExceptionHandler exceptionHandler) {
+      this.gson = gson;
+      this.reader = reader;
+      this.stream = stream;
+      this.adapter = adapter;
+      this.exceptionHandler = exceptionHandler;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (finished) {
+        return false;
+      }
+      try {
+        if (!started) {
+          started = true;
+          reader.beginArray();
+        }
+        if (reader.hasNext()) {
+          return true;
+        }
+        reader.endArray();
+        close();
+        return false;
+      } catch (Exception ex) {
+        throw failed(ex);
+      }
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        return adapter.read(reader);
+      } catch (Exception ex) {
+        throw failed(ex);
+      }
+    }
+
+    /**
+     * Closes the entity stream and passes the failure to the exception handler, same as
+     * {@link GsonMessageBodyProvider#readFrom} does for regular entities. Checked exceptions
+     * are rethrown wrapped in {@link JsonIOException} as iterator cannot throw them.
+     */
+    private RuntimeException failed(Exception exception) {
+      try {
+        close();
+      } catch (IOException ex) {
+        // ignore io exception of close as original exception is more important
+      }
+      IOException readException = exception instanceof IOException
+          ? (IOException) exception
+          : new IOException(exception);
+      try {
+        exceptionHandler.onRead(gson, readException);
+      } catch (IOException ex) {
+        return new JsonIOException(ex);
+      }
+      return new JsonIOException(readException);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!finished) {
+        finished = true;
+        try {
+          reader.close();
+        } finally {
+          stream.close();
+        }
+      }
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+  private static final int FLUSH_EVERY_ELEMENTS = 100;
+
+  /** {@code java.util.stream.BaseStream.iterator()} if running on Java 8 or later. */
+  private static final @Nullable Method BASE_STREAM_ITERATOR = findBaseStreamIterator();
+
+  private static @Nullable Method findBaseStreamIterator() {
+    try {
+      return Class.forName("java.util.stream.BaseStream").getMethod("iterator");
+    } catch (Exception ex) {
+      return null;
+    }
+  }
+
   /**
    * Implement streaming exception handler. If now exception will be thrown by handler methods,
    * original {@link IOException} will be rethrown. Note that any runtime exceptions thrown by
@@ -377,9 +788,7 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
     @Value.Default
     public Gson gson() {
       GsonBuilder gsonBuilder = new GsonBuilder();
-      for (TypeAdapterFactory factory : ServiceLoader.load(TypeAdapterFactory.class)) {
-        gsonBuilder.registerTypeAdapterFactory(factory);
-      }
+      gsonBuilder.registerTypeAdapterFactory(IndexedTypeAdapterFactory.loadServices());
       return gsonBuilder.create();
     }
 
@@ -411,11 +820,46 @@ public class GsonMessageBodyProvider implements MessageBodyReader<Object>, Messa
       return DEFAULT_EXCEPTION_HANDLER;
     }
 
+    /**
+     * Limit of entity size for {@link GsonMessageBodyProvider#asyncReader(Type) asynchronous
+     * reading}. Parsed tokens are buffered until the entity is complete, the limit bounds memory
+     * used per entity.
+     * @return maximum number of bytes, by default 16 MiB
+     */
+    @Value.Default
+    public long maxAsyncEntityBytes() {
+      return 16L * 1024 * 1024;
+    }
+
+    /**
+     * Entities are serialized into a buffer recycled per thread up to this number of bytes
+     * before anything is written, so that response is sent with {@code Content-Length} header
+     * instead of chunked transfer encoding. Larger entities are written through as soon as the
+     * limit is exceeded. The same buffer is used to compute
+     * {@link GsonMessageBodyProvider#getSize} for JAX-RS 1.0 runtimes.
+     * @return maximum number of bytes to buffer, by default {@code 0} which disables buffering
+     */
+    @Value.Default
+    public int preSerializeLimit() {
+      return 0;
+    }
+
     /**
      * Handled media types
      * @return media types
      */
     public abstract List<MediaType> mediaTypes();
+
+    /**
+     * Jackson factories for binary JSON dialects by media type they handle, for example
+     * {@code SmileFactory} for {@link GsonMessageBodyProvider#APPLICATION_SMILE_TYPE} or
+     * {@code CBORFactory} for {@link GsonMessageBodyProvider#APPLICATION_CBOR_TYPE}. Generated
+     * Gson type adapters work unchanged over these dialects, as parsers and generators are
+     * adapted to Gson streaming. These media types are handled in addition to
+     * {@link #mediaTypes()} and regardless of {@link #allowJackson()}.
+     * @return factories by media type
+     */
+    public abstract Map<MediaType, JsonFactory> jsonFactories();
   }
 
   @VisibleForTesting
@@ -16,6 +16,7 @@
 package org.immutables.gson.stream;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
 import com.google.gson.stream.JsonWriter;
 import java.io.IOException;
 import java.io.Writer;
@@ -87,6 +88,19 @@ public class JsonGeneratorWriter extends JsonWriter implements Callable<JsonGene
     return this;
   }
 
+  /**
+   * Writes property name which is already encoded and escaped. Generated type adapters keep such
+   * names in static fields and use this method when writing through Jackson, so names are not
+   * re-encoded on each write.
+   * @param name pre-encoded name
+   * @return this writer
+   * @throws IOException if write failed
+   */
+  public JsonWriter name(SerializableString name) throws IOException {
+    generator.writeFieldName(name);
+    return this;
+  }
+
   @Override
   public JsonWriter value(String value) throws IOException {
     if (value == null) {
@@ -24,6 +24,7 @@ import com.google.gson.stream.JsonToken;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
 import javax.annotation.Nullable;
@@ -49,7 +50,7 @@ public class JsonParserReader extends JsonReader implements Callable<JsonParser>
     }
   };
 
-  private final JsonParser parser;
+  private JsonParser parser;
 
   public JsonParserReader(JsonParser parser) {
     super(UNSUPPORTED_READER);
@@ -60,6 +61,17 @@ public class JsonParserReader extends JsonReader implements Callable<JsonParser>
     return parser;
   }
 
+  /**
+   * Switches reader to read from another parser, so that reader instance could be reused to read
+   * a sequence of documents, avoiding allocation of a new reader per document. Previous parser is
+   * not closed by this method.
+   * @param parser new parser
+   */
+  protected void reset(JsonParser parser) {
+    this.parser = parser;
+    clearPeek();
+  }
+
   @Nullable
   private com.fasterxml.jackson.core.JsonToken peek;
 
@@ -158,16 +170,15 @@ public class JsonParserReader extends JsonReader implements Callable<JsonParser>
   @Override
   public double nextDouble() throws IOException {
     requirePeek();
-    double value = parser.getDoubleValue();
+    double value = readDouble();
     clearPeek();
     return value;
-
   }
 
   @Override
   public long nextLong() throws IOException {
     requirePeek();
-    long value = parser.getLongValue();
+    long value = readLong();
     clearPeek();
     return value;
   }
@@ -175,11 +186,149 @@ public class JsonParserReader extends JsonReader implements Callable<JsonParser>
   @Override
   public int nextInt() throws IOException {
     requirePeek();
-    int value = parser.getIntValue();
+    int value = readInt();
     clearPeek();
     return value;
   }
 
+  /**
+   * Reads array of numbers directly into primitive array without boxing elements or creating
+   * intermediate strings for numeric tokens.
+   * @return array of numbers or {@code null} if value is {@code null}
+   * @throws IOException if error occured
+   */
+  public @Nullable double[] nextDoubleArray() throws IOException {
+    if (!beginPrimitiveArray()) {
+      return null;
+    }
+    double[] values = new double[INITIAL_ARRAY_CAPACITY];
+    int size = 0;
+    while (requireNextElement()) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = readDouble();
+      clearPeek();
+    }
+    clearPeek();
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Reads array of numbers directly into primitive array without boxing elements or creating
+   * intermediate strings for numeric tokens.
+   * @return array of numbers or {@code null} if value is {@code null}
+   * @throws IOException if error occured
+   */
+  public @Nullable long[] nextLongArray() throws IOException {
+    if (!beginPrimitiveArray()) {
+      return null;
+    }
+    long[] values = new long[INITIAL_ARRAY_CAPACITY];
+    int size = 0;
+    while (requireNextElement()) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = readLong();
+      clearPeek();
+    }
+    clearPeek();
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Reads array of numbers directly into primitive array without boxing elements or creating
+   * intermediate strings for numeric tokens.
+   * @return array of numbers or {@code null} if value is {@code null}
+   * @throws IOException if error occured
+   */
+  public @Nullable int[] nextIntArray() throws IOException {
+    if (!beginPrimitiveArray()) {
+      return null;
+    }
+    int[] values = new int[INITIAL_ARRAY_CAPACITY];
+    int size = 0;
+    while (requireNextElement()) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = readInt();
+      clearPeek();
+    }
+    clearPeek();
+    return Arrays.copyOf(values, size);
+  }
+
+  private static final int INITIAL_ARRAY_CAPACITY = 16;
+
+  /** @return {@code false} if {@code null} value was consumed instead of array start */
+  private boolean beginPrimitiveArray() throws IOException {
+    requirePeek();
+    if (peek == VALUE_NULL) {
+      clearPeek();
+      return false;
+    }
+    expect(START_ARRAY);
+    clearPeek();
+    return true;
+  }
+
+  /** @return {@code false} if end of array is reached, token is not consumed in either case */
+  private boolean requireNextElement() throws IOException {
+    requirePeek();
+    return peek != END_ARRAY;
+  }
+
+  // Numeric tokens are read using parser's native accessors, string tokens are parsed for
+  // compatibility with Gson's JsonReader, which accepts numbers in quotes.
+
+  private double readDouble() throws IOException {
+    if (peek == VALUE_NUMBER_FLOAT || peek == VALUE_NUMBER_INT) {
+      return parser.getDoubleValue();
+    }
+    if (peek == VALUE_STRING) {
+      return Double.parseDouble(parser.getText());
+    }
+    throw new IllegalStateException("Expected number but was " + peek);
+  }
+
+  private long readLong() throws IOException {
+    if (peek == VALUE_NUMBER_INT) {
+      return parser.getLongValue();
+    }
+    if (peek == VALUE_NUMBER_FLOAT) {
+      double d = parser.getDoubleValue();
+      long l = (long) d;
+      if (l != d) {
+        throw new NumberFormatException("Expected a long but was " + d);
+      }
+      return l;
+    }
+    if (peek == VALUE_STRING) {
+      return Long.parseLong(parser.getText());
+    }
+    throw new IllegalStateException("Expected number but was " + peek);
+  }
+
+  private int readInt() throws IOException {
+    if (peek == VALUE_NUMBER_INT) {
+      return parser.getIntValue();
+    }
+    if (peek == VALUE_NUMBER_FLOAT) {
+      double d = parser.getDoubleValue();
+      int i = (int) d;
+      if (i != d) {
+        throw new NumberFormatException("Expected an int but was " + d);
+      }
+      return i;
+    }
+    if (peek == VALUE_STRING) {
+      return Integer.parseInt(parser.getText());
+    }
+    throw new IllegalStateException("Expected number but was " + peek);
+  }
+
   @Override
   public void close() throws IOException {
     clearPeek();
@@ -0,0 +1,148 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.lang.ref.SoftReference;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Writer which encodes characters to UTF-8 directly into its own byte buffer and writes it to
+ * the underlying stream, avoiding charset encoder and intermediate char buffers of
+ * {@code OutputStreamWriter}. Instances are recycled per thread, see {@link #acquire}.
+ * Closing this writer flushes, but does not close, underlying stream.
+ */
+@NotThreadSafe
+final class Utf8Writer extends Writer {
+  private static final int BUFFER_SIZE = 8192;
+  private static final ThreadLocal<SoftReference<Utf8Writer>> RECYCLED = new ThreadLocal<>();
+
+  private final byte[] bytes = new byte[BUFFER_SIZE];
+  private int count;
+  private char highSurrogate;
+  private @Nullable OutputStream out;
+
+  /**
+   * Returns writer recycled for current thread or a new one if recycled one is in use.
+   * @param out stream to write to
+   * @return writer which should be {@link #release() released} after use
+   */
+  static Utf8Writer acquire(OutputStream out) {
+    @Nullable SoftReference<Utf8Writer> reference = RECYCLED.get();
+    @Nullable Utf8Writer writer = reference != null ? reference.get() : null;
+    if (writer == null) {
+      writer = new Utf8Writer();
+      RECYCLED.set(new SoftReference<>(writer));
+    } else if (writer.out != null) {
+      writer = new Utf8Writer();
+    }
+    writer.out = out;
+    return writer;
+  }
+
+  /** Detaches writer from the stream so it could be acquired again, unflushed bytes are lost. */
+  void release() {
+    out = null;
+    count = 0;
+    highSurrogate = 0;
+  }
+
+  @Override
+  public void write(int c) throws IOException {
+    encode((char) c);
+  }
+
+  @Override
+  public void write(char[] chars, int offset, int length) throws IOException {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      encode(chars[i]);
+    }
+  }
+
+  @Override
+  public void write(String string, int offset, int length) throws IOException {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      encode(string.charAt(i));
+    }
+  }
+
+  @Override
+  public Writer append(CharSequence sequence) throws IOException {
+    for (int i = 0, length = sequence.length(); i < length; i++) {
+      encode(sequence.charAt(i));
+    }
+    return this;
+  }
+
+  private void encode(char c) throws IOException {
+    if (count > BUFFER_SIZE - 4) {
+      flushBuffer();
+    }
+    if (highSurrogate != 0) {
+      char high = highSurrogate;
+      highSurrogate = 0;
+      if (Character.isLowSurrogate(c)) {
+        int codePoint = Character.toCodePoint(high, c);
+        bytes[count++] = (byte) (0xf0 | codePoint >> 18);
+        bytes[count++] = (byte) (0x80 | codePoint >> 12 & 0x3f);
+        bytes[count++] = (byte) (0x80 | codePoint >> 6 & 0x3f);
+        bytes[count++] = (byte) (0x80 | codePoint & 0x3f);
+        return;
+      }
+      // unpaired surrogate is replaced the same way as the standard encoder does
+      bytes[count++] = '?';
+    }
+    if (c < 0x80) {
+      bytes[count++] = (byte) c;
+    } else if (c < 0x800) {
+      bytes[count++] = (byte) (0xc0 | c >> 6);
+      bytes[count++] = (byte) (0x80 | c & 0x3f);
+    } else if (Character.isHighSurrogate(c)) {
+      highSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      bytes[count++] = '?';
+    } else {
+      bytes[count++] = (byte) (0xe0 | c >> 12);
+      bytes[count++] = (byte) (0x80 | c >> 6 & 0x3f);
+      bytes[count++] = (byte) (0x80 | c & 0x3f);
+    }
+  }
+
+  private void flushBuffer() throws IOException {
+    if (count > 0) {
+      out.write(bytes, 0, count);
+      count = 0;
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (highSurrogate != 0) {
+      highSurrogate = 0;
+      encode('?');
+    }
+    flushBuffer();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+}
@@ -0,0 +1,59 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.adapter;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.immutables.gson.Gson;
+import org.immutables.value.Value;
+
+@Gson.TypeAdapters(bypassBuilder = true)
+@Value.Enclosing
+@Value.Style(allParameters = true)
+public interface BypassBuilder {
+  @Value.Immutable
+  abstract class Point {
+    abstract int x();
+
+    abstract int y();
+
+    abstract @Nullable String label();
+
+    abstract List<String> tags();
+
+    abstract Map<String, Integer> counts();
+
+    abstract Optional<String> note();
+
+    @Value.Check
+    void check() {
+      Preconditions.checkState(x() >= 0, "x should not be negative");
+    }
+  }
+
+  @Value.Immutable
+  interface Defaulted {
+    String name();
+
+    @Value.Default
+    int size() {
+      return 1;
+    }
+  }
+}
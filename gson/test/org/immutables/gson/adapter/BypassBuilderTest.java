@@ -0,0 +1,67 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class BypassBuilderTest {
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(new GsonAdaptersBypassBuilder())
+      .create();
+
+  @Test
+  public void roundtrip() {
+    BypassBuilder.Point point = ImmutableBypassBuilder.Point.builder()
+        .x(1)
+        .y(2)
+        .label("a")
+        .addTags("t1", "t2")
+        .putCounts("c", 3)
+        .note("n")
+        .build();
+
+    check(gson.fromJson(gson.toJson(point), BypassBuilder.Point.class)).is(point);
+  }
+
+  @Test
+  public void absentAttributesAreEmpty() {
+    BypassBuilder.Point point = gson.fromJson("{\"y\":2,\"x\":1,\"unknown\":[1]}", BypassBuilder.Point.class);
+
+    check(point).is(ImmutableBypassBuilder.Point.builder()
+        .x(1)
+        .y(2)
+        .build());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void missingRequiredAttribute() throws IOException {
+    gson.getAdapter(BypassBuilder.Point.class).fromJson("{\"x\":1}");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void checkIsApplied() throws IOException {
+    gson.getAdapter(BypassBuilder.Point.class).fromJson("{\"x\":-1,\"y\":0}");
+  }
+
+  @Test
+  public void defaultsReadWithBuilder() {
+    check(gson.fromJson("{\"name\":\"n\"}", BypassBuilder.Defaulted.class).size()).is(1);
+  }
+}
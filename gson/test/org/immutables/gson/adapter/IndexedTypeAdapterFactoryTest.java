@@ -0,0 +1,122 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class IndexedTypeAdapterFactoryTest {
+  static final class Marker {}
+
+  final TypeAdapter<Marker> markerAdapter = new TypeAdapter<Marker>() {
+    @Override
+    public void write(JsonWriter out, Marker value) throws IOException {
+      out.value("marker");
+    }
+
+    @Override
+    public Marker read(JsonReader in) throws IOException {
+      in.skipValue();
+      return new Marker();
+    }
+  };
+
+  final TypeAdapterFactory unindexed = new TypeAdapterFactory() {
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      return type.getRawType() == Marker.class
+          ? (TypeAdapter<T>) markerAdapter
+          : null;
+    }
+  };
+
+  final TypeAdapterFactory overriding = new TypeAdapterFactory() {
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+      return type.getRawType() == Simple.class
+          ? (TypeAdapter<T>) markerAdapter
+          : null;
+    }
+  };
+
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(IndexedTypeAdapterFactory.of(Arrays.asList(
+          new GsonAdaptersSimple(),
+          new GsonAdaptersUnsimple(),
+          unindexed)))
+      .create();
+
+  @Test
+  public void adaptedTypes() {
+    check(new GsonAdaptersSimple().adaptedTypes()).hasContentInAnyOrder(Simple.class, ImmutableSimple.class);
+  }
+
+  @Test
+  public void indexedDispatch() {
+    check(gson.getAdapter(Simple.class).getClass().getName()).contains("GsonAdaptersSimple");
+    check(gson.getAdapter(ImmutableUnsimple.class).getClass().getName()).contains("GsonAdaptersUnsimple");
+
+    Simple simple = ImmutableSimple.builder()
+        .addCharacterList('a')
+        .nlb(1)
+        .build();
+
+    check(gson.fromJson(gson.toJson(simple), Simple.class)).is(simple);
+  }
+
+  @Test
+  public void unindexedFallback() {
+    check(gson.toJson(new Marker())).is("\"marker\"");
+    check(IndexedTypeAdapterFactory.of(Arrays.asList(unindexed))
+        .create(gson, TypeToken.get(Simple.class))).isNull();
+  }
+
+  /**
+   * Same as with separate registration in {@link GsonBuilder}, last registered factory wins.
+   */
+  @Test
+  public void lastRegisteredWins() {
+    TypeToken<Simple> simple = TypeToken.get(Simple.class);
+
+    Object lastOverriding = IndexedTypeAdapterFactory.of(Arrays.asList(new GsonAdaptersSimple(), overriding))
+        .create(gson, simple);
+
+    Object lastGenerated = IndexedTypeAdapterFactory.of(Arrays.asList(overriding, new GsonAdaptersSimple()))
+        .create(gson, simple);
+
+    check(lastOverriding).same(markerAdapter);
+    check(lastGenerated).not().same(markerAdapter);
+
+    Gson separate = new GsonBuilder()
+        .registerTypeAdapterFactory(new GsonAdaptersSimple())
+        .registerTypeAdapterFactory(overriding)
+        .create();
+
+    Object adapter = separate.getAdapter(Simple.class);
+    check(adapter).same(markerAdapter);
+  }
+}
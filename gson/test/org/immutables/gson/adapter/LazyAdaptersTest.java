@@ -0,0 +1,99 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import java.lang.reflect.Field;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class LazyAdaptersTest {
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(new GsonAdaptersLazyAdapters())
+      .create();
+
+  @Test
+  public void roundtrip() {
+    LazyAdapters.Leaf leaf = ImmutableLazyAdapters.Leaf.builder()
+        .values(1, 2, 3)
+        .build();
+
+    LazyAdapters.Node node = ImmutableLazyAdapters.Node.builder()
+        .name("root")
+        .addChildren(ImmutableLazyAdapters.Node.builder()
+            .name("child")
+            .putLeaves("a", leaf)
+            .build())
+        .first(leaf)
+        .build();
+
+    check(gson.fromJson(gson.toJson(node), LazyAdapters.Node.class)).is(node);
+  }
+
+  @Test
+  public void resolutionDeferred() throws Exception {
+    Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(new GsonAdaptersLazyAdapters())
+        .create();
+
+    TypeAdapter<LazyAdapters.Node> adapter = gson.getAdapter(LazyAdapters.Node.class);
+    check(lazyDelegate(adapter, "firstTypeAdapter")).isNull();
+
+    gson.toJson(ImmutableLazyAdapters.Node.builder()
+        .name("root")
+        .first(ImmutableLazyAdapters.Leaf.builder().build())
+        .build());
+
+    check(lazyDelegate(adapter, "firstTypeAdapter")).notNull();
+    check(lazyDelegate(adapter, "leavesSecondaryTypeAdapter")).isNull();
+  }
+
+  @Test
+  public void warmUp() throws Exception {
+    Gson gson = new GsonBuilder()
+        .registerTypeAdapterFactory(new GsonAdaptersLazyAdapters())
+        .create();
+
+    Executor direct = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        command.run();
+      }
+    };
+
+    GsonAdaptersLazyAdapters.warmUp(gson, direct).get(10, TimeUnit.SECONDS);
+
+    TypeAdapter<LazyAdapters.Node> adapter = gson.getAdapter(LazyAdapters.Node.class);
+    check(lazyDelegate(adapter, "firstTypeAdapter")).notNull();
+    check(lazyDelegate(adapter, "leavesSecondaryTypeAdapter")).notNull();
+
+    check(gson.toJson(ImmutableLazyAdapters.Leaf.builder().build())).is("{\"values\":[]}");
+  }
+
+  /** Reads resolved delegate of generated lazy attribute adapter, {@code null} if not resolved yet. */
+  private static Object lazyDelegate(Object adapter, String fieldName) throws Exception {
+    Field field = adapter.getClass().getDeclaredField(fieldName);
+    field.setAccessible(true);
+    Object lazy = field.get(adapter);
+    Field delegate = lazy.getClass().getSuperclass().getDeclaredField("delegate");
+    delegate.setAccessible(true);
+    return delegate.get(lazy);
+  }
+}
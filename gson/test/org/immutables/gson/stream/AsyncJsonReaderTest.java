@@ -0,0 +1,176 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.immutables.gson.adapter.GsonAdaptersMapTest;
+import org.immutables.gson.adapter.ImmutableMapTest;
+import org.immutables.gson.adapter.MapTest;
+import org.immutables.gson.stream.GsonMessageBodyProvider.ExceptionHandler;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class AsyncJsonReaderTest {
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(new GsonAdaptersMapTest())
+      .create();
+
+  final GsonMessageBodyProvider provider = new GsonMessageBodyProvider(
+      new GsonProviderOptionsBuilder()
+          .gson(gson)
+          .maxAsyncEntityBytes(1024)
+          .build());
+
+  final MapTest sample = ImmutableMapTest.builder()
+      .putMapBoolean("b", true)
+      .putMapDouble("d", 1.5)
+      .putMapObject("o", "\u043f\u0440\u0438\u0432\u0435\u0442")
+      .build();
+
+  @Test
+  public void chunkedInput() throws IOException {
+    byte[] bytes = gson.toJson(sample).getBytes(StandardCharsets.UTF_8);
+    Random random = new Random(7);
+
+    for (int attempt = 0; attempt < 20; attempt++) {
+      AsyncJsonReader<MapTest> reader = provider.asyncReader(MapTest.class);
+      ChunkedInput input = new ChunkedInput(bytes, random);
+      boolean complete = false;
+      while (input.hasChunk()) {
+        check(!complete);
+        complete = input.feedTo(reader);
+      }
+      check(complete);
+      reader.endOfInput();
+      check(reader.value()).is(sample);
+    }
+  }
+
+  @Test
+  public void scalarAndArray() throws IOException {
+    AsyncJsonReader<List<Integer>> list = provider.asyncReader(new TypeToken<List<Integer>>() {}.getType());
+    check(!feed(list, " [1, 2,"));
+    check(feed(list, "3] "));
+    list.endOfInput();
+    check(list.value()).isOf(1, 2, 3);
+
+    AsyncJsonReader<String> string = provider.asyncReader(String.class);
+    check(feed(string, "\"a\""));
+    string.endOfInput();
+    check(string.value()).is("a");
+  }
+
+  @Test(expected = EOFException.class)
+  public void incomplete() throws IOException {
+    AsyncJsonReader<MapTest> reader = provider.asyncReader(MapTest.class);
+    feed(reader, "{\"mapDouble\":{");
+    reader.endOfInput();
+  }
+
+  @Test(expected = IOException.class)
+  public void contentAfterValue() throws IOException {
+    AsyncJsonReader<MapTest> reader = provider.asyncReader(MapTest.class);
+    feed(reader, "{} {}");
+  }
+
+  @Test
+  public void limitExceeded() throws IOException {
+    AsyncJsonReader<List<Integer>> reader = provider.asyncReader(new TypeToken<List<Integer>>() {}.getType());
+    feed(reader, "[");
+    try {
+      for (int i = 0; i < 1024; i++) {
+        feed(reader, "1,");
+      }
+      check(false);
+    } catch (IOException ex) {
+      check(ex.getMessage()).contains("limit");
+    }
+  }
+
+  @Test
+  public void failuresHandled() throws IOException {
+    final List<IOException> handled = new ArrayList<>();
+    GsonMessageBodyProvider handling = new GsonMessageBodyProvider(
+        new GsonProviderOptionsBuilder()
+            .gson(gson)
+            .maxAsyncEntityBytes(8)
+            .exceptionHandler(new ExceptionHandler() {
+              @Override
+              public void onRead(Gson gson, IOException exception) {
+                handled.add(exception);
+              }
+
+              @Override
+              public void onWrite(Gson gson, IOException exception) {}
+            })
+            .build());
+
+    List<String> chunks = new ArrayList<>();
+    chunks.add("{]");
+    chunks.add("[1, 2, 3, 4]");
+    chunks.add("[1,");
+
+    for (String chunk : chunks) {
+      AsyncJsonReader<List<Integer>> reader = handling.asyncReader(new TypeToken<List<Integer>>() {}.getType());
+      try {
+        feed(reader, chunk);
+        reader.endOfInput();
+        check(false);
+      } catch (IOException ex) {
+        check(handled.get(handled.size() - 1)).same(ex);
+      }
+    }
+    check(handled.size()).is(chunks.size());
+  }
+
+  private static boolean feed(AsyncJsonReader<?> reader, String chunk) throws IOException {
+    byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+    return reader.feed(bytes, 0, bytes.length);
+  }
+
+  /** Stand-in for network input delivering content in chunks of random size. */
+  static final class ChunkedInput {
+    private final byte[] bytes;
+    private final Random random;
+    private final byte[] chunk = new byte[8];
+    private int position;
+
+    ChunkedInput(byte[] bytes, Random random) {
+      this.bytes = bytes;
+      this.random = random;
+    }
+
+    boolean hasChunk() {
+      return position < bytes.length;
+    }
+
+    boolean feedTo(AsyncJsonReader<?> reader) throws IOException {
+      int length = Math.min(1 + random.nextInt(chunk.length), bytes.length - position);
+      // chunk buffer is reused like network buffers are
+      System.arraycopy(bytes, position, chunk, 0, length);
+      position += length;
+      return reader.feed(chunk, 0, length);
+    }
+  }
+}
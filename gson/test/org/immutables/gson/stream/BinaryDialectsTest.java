@@ -0,0 +1,124 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import javax.ws.rs.core.MediaType;
+import org.immutables.gson.adapter.GsonAdaptersMapTest;
+import org.immutables.gson.adapter.ImmutableMapTest;
+import org.immutables.gson.adapter.MapTest;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class BinaryDialectsTest {
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+  private static final Type LIST_OF_MAP_TEST = new TypeToken<List<MapTest>>() {}.getType();
+
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(new GsonAdaptersMapTest())
+      .create();
+
+  final GsonMessageBodyProvider provider = new GsonMessageBodyProvider(
+      new GsonProviderOptionsBuilder()
+          .gson(gson)
+          .putJsonFactories(GsonMessageBodyProvider.APPLICATION_SMILE_TYPE, new SmileFactory())
+          .putJsonFactories(GsonMessageBodyProvider.APPLICATION_CBOR_TYPE, new CBORFactory())
+          .build());
+
+  final MapTest sample = ImmutableMapTest.builder()
+      .putMapBoolean("b", true)
+      .putMapDouble("d", 1.5)
+      .putMapObject("o", "x")
+      .build();
+
+  @Test
+  public void handledMediaTypes() {
+    check(provider.isWriteable(MapTest.class, MapTest.class, NO_ANNOTATIONS, GsonMessageBodyProvider.APPLICATION_SMILE_TYPE));
+    check(provider.isReadable(MapTest.class, MapTest.class, NO_ANNOTATIONS, GsonMessageBodyProvider.APPLICATION_CBOR_TYPE));
+    check(provider.isReadable(MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE));
+    check(!provider.isReadable(MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.TEXT_PLAIN_TYPE));
+  }
+
+  @Test
+  public void smileInteroperability() throws IOException {
+    interoperability(GsonMessageBodyProvider.APPLICATION_SMILE_TYPE, new SmileFactory());
+  }
+
+  @Test
+  public void cborInteroperability() throws IOException {
+    interoperability(GsonMessageBodyProvider.APPLICATION_CBOR_TYPE, new CBORFactory());
+  }
+
+  private void interoperability(MediaType mediaType, JsonFactory factory) throws IOException {
+    ObjectMapper dialectMapper = new ObjectMapper(factory);
+    ObjectMapper jsonMapper = new ObjectMapper();
+
+    // written by provider, read by plain Jackson
+    byte[] bytes = write(sample, MapTest.class, mediaType);
+    JsonNode expected = jsonMapper.readTree(gson.toJson(sample));
+    check(dialectMapper.readTree(bytes)).is(expected);
+
+    // written by plain Jackson, read by provider
+    byte[] foreign = dialectMapper.writeValueAsBytes(expected);
+    check(read(foreign, MapTest.class, mediaType)).is(sample);
+  }
+
+  @Test
+  public void bulkRoundtrip() throws IOException {
+    List<MapTest> documents = new ArrayList<>();
+    for (int i = 0; i < 10000; i++) {
+      documents.add(ImmutableMapTest.builder()
+          .putMapDouble("d" + i, i / 2.0)
+          .putMapBoolean("b", i % 2 == 0)
+          .build());
+    }
+
+    byte[] json = write(documents, LIST_OF_MAP_TEST, MediaType.APPLICATION_JSON_TYPE);
+    byte[] smile = write(documents, LIST_OF_MAP_TEST, GsonMessageBodyProvider.APPLICATION_SMILE_TYPE);
+    byte[] cbor = write(documents, LIST_OF_MAP_TEST, GsonMessageBodyProvider.APPLICATION_CBOR_TYPE);
+
+    check(read(smile, LIST_OF_MAP_TEST, GsonMessageBodyProvider.APPLICATION_SMILE_TYPE)).is(documents);
+    check(read(cbor, LIST_OF_MAP_TEST, GsonMessageBodyProvider.APPLICATION_CBOR_TYPE)).is(documents);
+    check(smile.length < json.length);
+    check(cbor.length < json.length);
+  }
+
+  private byte[] write(Object value, Type type, MediaType mediaType) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    provider.writeTo(value, Object.class, type, NO_ANNOTATIONS, mediaType, null, out);
+    return out.toByteArray();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object read(byte[] bytes, Type type, MediaType mediaType) throws IOException {
+    return provider.readFrom(
+        (Class<Object>) TypeToken.get(type).getRawType(), type, NO_ANNOTATIONS, mediaType, null, new ByteArrayInputStream(bytes));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.SerializableString;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.immutables.gson.adapter.GsonAdaptersMapTest;
+import org.immutables.gson.adapter.ImmutableMapTest;
+import org.immutables.gson.adapter.MapTest;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+/**
+ * Generated adapters write attribute names pre-encoded when writing through Jackson and fallback
+ * to plain strings otherwise.
+ */
+public class EncodedNamesTest {
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(new GsonAdaptersMapTest())
+      .create();
+
+  final MapTest value = ImmutableMapTest.builder()
+      .putMapBoolean("b", true)
+      .putMapObject("o", "x")
+      .putMapDouble("d", 1.0)
+      .build();
+
+  final List<String> stringNames = new ArrayList<>();
+  final List<String> encodedNames = new ArrayList<>();
+
+  @Test
+  public void encodedNamesWithGenerator() throws IOException {
+    StringWriter output = new StringWriter();
+    JsonGeneratorWriter writer = new JsonGeneratorWriter(new JsonFactory().createGenerator(output)) {
+      @Override
+      public JsonWriter name(String name) throws IOException {
+        stringNames.add(name);
+        return super.name(name);
+      }
+
+      @Override
+      public JsonWriter name(SerializableString name) throws IOException {
+        encodedNames.add(name.getValue());
+        return super.name(name);
+      }
+    };
+    gson.toJson(value, MapTest.class, writer);
+    writer.close();
+
+    check(encodedNames).hasContentInAnyOrder("mapBoolean", "mapObject", "mapDouble");
+    // map keys are not known ahead and are written as strings
+    check(stringNames).hasContentInAnyOrder("b", "o", "d");
+    check(gson.fromJson(output.toString(), MapTest.class)).is(value);
+  }
+
+  @Test
+  public void stringNamesWithPlainWriter() throws IOException {
+    StringWriter output = new StringWriter();
+    JsonWriter writer = new JsonWriter(output) {
+      @Override
+      public JsonWriter name(String name) throws IOException {
+        stringNames.add(name);
+        return super.name(name);
+      }
+    };
+    gson.toJson(value, MapTest.class, writer);
+    writer.close();
+
+    check(stringNames).hasContentInAnyOrder("mapBoolean", "b", "mapObject", "o", "mapDouble", "d");
+    check(gson.fromJson(output.toString(), MapTest.class)).is(value);
+  }
+}
@@ -23,6 +23,8 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import javax.ws.rs.WebApplicationException;
@@ -107,6 +109,39 @@ public class JaxrsTest {
     check(result).isOf("x", "y", "[11]");
   }
 
+  @Test
+  public void streamedArrayRoundtrip() {
+
+    List<String> result = client.target(SERVER_URI)
+        .path("/stream")
+        .request(MediaType.APPLICATION_JSON_TYPE)
+        .accept(MediaType.APPLICATION_JSON_TYPE)
+        .post(Entity.json(Arrays.asList(1, 2, 3)), new GenericType<List<String>>() {});
+
+    check(result).isOf("#1", "#2", "#3");
+  }
+
+  /**
+   * Array spanning many buffers of entity stream is still read lazily after
+   * {@code readFrom} returns.
+   */
+  @Test
+  public void streamedMultiMegabyteArray() {
+    List<Integer> integers = new ArrayList<>();
+    for (int i = 0; i < 500_000; i++) {
+      integers.add(i);
+    }
+
+    List<String> result = client.target(SERVER_URI)
+        .path("/stream")
+        .request(MediaType.APPLICATION_JSON_TYPE)
+        .accept(MediaType.APPLICATION_JSON_TYPE)
+        .post(Entity.json(integers), new GenericType<List<String>>() {});
+
+    check(result.size()).is(integers.size());
+    check(result.get(result.size() - 1)).is("#499999");
+  }
+
   @Test
   public void defaultErrorHandling() {
     try {
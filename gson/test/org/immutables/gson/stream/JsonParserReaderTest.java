@@ -0,0 +1,60 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class JsonParserReaderTest {
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  private static JsonParserReader reader(String json) throws IOException {
+    return new JsonParserReader(JSON_FACTORY.createParser(json));
+  }
+
+  @Test
+  public void numbers() throws IOException {
+    JsonParserReader reader = reader("[1, 2.5, \"3\", 4.0, 9000000000]");
+    reader.beginArray();
+    check(reader.nextInt()).is(1);
+    check(reader.nextDouble()).is(2.5);
+    check(reader.nextLong()).is(3L);
+    check(reader.nextInt()).is(4);
+    check(reader.nextLong()).is(9000000000L);
+    reader.endArray();
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void fractionalInt() throws IOException {
+    JsonParserReader reader = reader("[1.5]");
+    reader.beginArray();
+    reader.nextInt();
+  }
+
+  @Test
+  public void primitiveArrays() throws IOException {
+    JsonParserReader reader = reader("[[1.5, 2, \"3\"], [], null, [1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17], [-1]]");
+    reader.beginArray();
+    check(reader.nextDoubleArray()).isOf(1.5, 2.0, 3.0);
+    check(reader.nextIntArray().length).is(0);
+    check(reader.nextLongArray() == null);
+    check(reader.nextIntArray().length).is(17);
+    check(reader.nextLongArray()[0]).is(-1L);
+    reader.endArray();
+  }
+}
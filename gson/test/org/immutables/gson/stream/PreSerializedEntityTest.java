@@ -0,0 +1,148 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import org.immutables.gson.adapter.GsonAdaptersMapTest;
+import org.immutables.gson.adapter.ImmutableMapTest;
+import org.immutables.gson.adapter.MapTest;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class PreSerializedEntityTest {
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+  private static final int LIMIT = 256;
+
+  final Gson gson = new GsonBuilder()
+      .registerTypeAdapterFactory(new GsonAdaptersMapTest())
+      .create();
+
+  final GsonMessageBodyProvider buffering = provider(true, LIMIT);
+  final GsonMessageBodyProvider gsonBuffering = provider(false, LIMIT);
+  final GsonMessageBodyProvider streaming = provider(true, 0);
+
+  final MapTest small = ImmutableMapTest.builder()
+      .putMapBoolean("b", true)
+      .putMapObject("o", "x")
+      .build();
+
+  final MapTest large = sampleLarger(LIMIT);
+
+  private GsonMessageBodyProvider provider(boolean allowJackson, int limit) {
+    return new GsonMessageBodyProvider(
+        new GsonProviderOptionsBuilder()
+            .gson(gson)
+            .allowJackson(allowJackson)
+            .preSerializeLimit(limit)
+            .build());
+  }
+
+  private static MapTest sampleLarger(int bytes) {
+    ImmutableMapTest.Builder builder = ImmutableMapTest.builder();
+    for (int i = 0; i < bytes / 8; i++) {
+      builder.putMapDouble("d" + i, i);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void disabledByDefault() {
+    check(streaming.getSize(small, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE)).is(-1L);
+  }
+
+  @Test
+  public void sizeOfPreSerialized() throws IOException {
+    for (GsonMessageBodyProvider provider : Arrays.asList(buffering, gsonBuffering)) {
+      long size = provider.getSize(small, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE);
+      byte[] bytes = write(provider, small, null);
+      check(size).is((long) bytes.length);
+      check(new String(bytes, StandardCharsets.UTF_8)).is(gson.toJson(small));
+    }
+  }
+
+  @Test
+  public void noSizeOfLargeEntity() throws IOException {
+    check(buffering.getSize(large, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE)).is(-1L);
+    check(new String(write(buffering, large, null), StandardCharsets.UTF_8)).is(gson.toJson(large));
+  }
+
+  @Test
+  public void preSerializedOnlyForSameEntity() throws IOException {
+    buffering.getSize(large, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE);
+    buffering.getSize(small, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE);
+    check(new String(write(buffering, large, null), StandardCharsets.UTF_8)).is(gson.toJson(large));
+  }
+
+  @Test
+  public void contentLengthOfBuffered() throws IOException {
+    MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+    byte[] bytes = write(buffering, small, headers);
+    check(headers.getFirst(HttpHeaders.CONTENT_LENGTH)).is(String.valueOf(bytes.length));
+
+    headers.clear();
+    bytes = write(buffering, large, headers);
+    check(headers.containsKey(HttpHeaders.CONTENT_LENGTH)).is(false);
+    check(new String(bytes, StandardCharsets.UTF_8)).is(gson.toJson(large));
+  }
+
+  @Test
+  public void directUtf8CharSequence() throws IOException {
+    String text = "{\"a\":\"\u00e9\u4e2d\ud83d\ude00\ud800x\"}";
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    streaming.writeTo(new StringBuilder(text), Object.class, Object.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE, null, out);
+    check(Arrays.equals(out.toByteArray(), text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  /**
+   * Buffer retained by getSize for a response which is never written is released by the next
+   * write on the thread, even of other kind of entity.
+   */
+  @Test
+  public void staleBufferReleased() throws Exception {
+    buffering.getSize(small, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE);
+    check(preSerialized(buffering)).notNull();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    buffering.writeTo(new StringBuilder("{}"), Object.class, Object.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE, null, out);
+
+    check(preSerialized(buffering)).isNull();
+    check(new String(out.toByteArray(), StandardCharsets.UTF_8)).is("{}");
+  }
+
+  private static Object preSerialized(GsonMessageBodyProvider provider) throws Exception {
+    Field field = GsonMessageBodyProvider.class.getDeclaredField("preSerialized");
+    field.setAccessible(true);
+    return ((ThreadLocal<?>) field.get(provider)).get();
+  }
+
+  private byte[] write(GsonMessageBodyProvider provider, Object value, MultivaluedMap<String, Object> headers)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    provider.writeTo(value, MapTest.class, MapTest.class, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE, headers, out);
+    return out.toByteArray();
+  }
+}
@@ -15,7 +15,9 @@
  */
 package org.immutables.gson.stream;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import javax.ws.rs.Consumes;
@@ -43,6 +45,18 @@ public class Resource {
     return Arrays.asList("x", "y", integers.toString());
   }
 
+  @Path("/stream")
+  @POST
+  @Produces(MediaType.APPLICATION_JSON)
+  @Consumes(MediaType.APPLICATION_JSON)
+  public Iterator<String> stream(Iterator<Integer> integers) {
+    List<String> strings = new ArrayList<>();
+    while (integers.hasNext()) {
+      strings.add("#" + integers.next());
+    }
+    return strings.iterator();
+  }
+
   @Path("/objectBooleanInMapTest")
   @GET
   @Produces(MediaType.APPLICATION_JSON)
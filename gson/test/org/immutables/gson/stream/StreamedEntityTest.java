@@ -0,0 +1,138 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.gson.stream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import javax.ws.rs.core.MediaType;
+import org.immutables.gson.stream.GsonMessageBodyProvider.ExceptionHandler;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+import static org.junit.Assert.fail;
+
+public class StreamedEntityTest {
+  private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+  private static final Type ITERATOR_OF_INTEGERS = new TypeToken<Iterator<Integer>>() {}.getType();
+  private static final Type ITERABLE_OF_INTEGERS = new TypeToken<Iterable<Integer>>() {}.getType();
+
+  final List<IOException> handled = new ArrayList<>();
+
+  final ExceptionHandler recordingHandler = new ExceptionHandler() {
+    @Override
+    public void onRead(Gson gson, IOException exception) {
+      handled.add(exception);
+    }
+
+    @Override
+    public void onWrite(Gson gson, IOException exception) {}
+  };
+
+  final List<GsonMessageBodyProvider> providers = Arrays.asList(provider(true), provider(false));
+
+  private GsonMessageBodyProvider provider(boolean allowJackson) {
+    return new GsonMessageBodyProvider(
+        new GsonProviderOptionsBuilder()
+            .gson(new Gson())
+            .allowJackson(allowJackson)
+            .exceptionHandler(recordingHandler)
+            .build());
+  }
+
+  @Test
+  public void streamClosedAtEndOfArray() throws IOException {
+    for (GsonMessageBodyProvider provider : providers) {
+      TrackedStream stream = new TrackedStream("[1, 2, 3]");
+      Object entity = read(provider, ITERATOR_OF_INTEGERS, stream);
+      check(entity).isA(Closeable.class);
+
+      Iterator<?> elements = (Iterator<?>) entity;
+      List<Object> values = new ArrayList<>();
+      while (elements.hasNext()) {
+        check(!stream.closed);
+        values.add(elements.next());
+      }
+      check(values).isOf(1, 2, 3);
+      check(stream.closed);
+    }
+  }
+
+  @Test
+  public void streamClosedWithEntity() throws IOException {
+    for (GsonMessageBodyProvider provider : providers) {
+      TrackedStream stream = new TrackedStream("[1, 2, 3]");
+      Object entity = read(provider, ITERABLE_OF_INTEGERS, stream);
+      check(((Iterable<?>) entity).iterator().next()).is(1);
+
+      ((Closeable) entity).close();
+      check(stream.closed);
+    }
+  }
+
+  @Test
+  public void elementErrorHandled() throws IOException {
+    for (GsonMessageBodyProvider provider : providers) {
+      handled.clear();
+      TrackedStream stream = new TrackedStream("[1, }");
+      Iterator<?> elements = (Iterator<?>) read(provider, ITERATOR_OF_INTEGERS, stream);
+      check(elements.next()).is(1);
+      try {
+        elements.next();
+        fail();
+      } catch (JsonIOException ex) {
+        check(handled.size()).is(1);
+        check(ex.getCause()).same(handled.get(0));
+      }
+      check(stream.closed);
+      check(!elements.hasNext());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object read(GsonMessageBodyProvider provider, Type type, TrackedStream stream) throws IOException {
+    return provider.readFrom(
+        (Class<Object>) TypeToken.get(type).getRawType(),
+        type,
+        NO_ANNOTATIONS,
+        MediaType.APPLICATION_JSON_TYPE,
+        null,
+        stream);
+  }
+
+  static final class TrackedStream extends ByteArrayInputStream {
+    boolean closed;
+
+    TrackedStream(String json) {
+      super(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void close() throws IOException {
+      closed = true;
+      super.close();
+    }
+  }
+}
@@ -0,0 +1,181 @@
+/*
+   Copyright 2017 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.mongo.repository;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.mongodb.DBObject;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import org.immutables.mongo.repository.internal.Constraints;
+import org.immutables.mongo.repository.internal.Support;
+
+/**
+ * Metrics of a single completed repository operation passed to {@link OperationListener}.
+ * All durations are in nanoseconds. Time spent executing operation is split into time spent in
+ * driver and network I/O and time spent decoding documents using type adapters.
+ */
+@Immutable
+public final class OperationEvent {
+  /**
+   * Kinds of repository operations.
+   */
+  public enum Kind {
+    FETCH,
+    INSERT,
+    UPDATE,
+    MODIFY,
+    REPLACE,
+    DELETE,
+    UPSERT,
+    INDEX
+  }
+
+  private final Kind kind;
+  private final String collectionName;
+  private final @Nullable Constraints.ConstraintHost criteria;
+  private final long queueNanos;
+  private final long ioNanos;
+  private final long decodeNanos;
+  private final int documentCount;
+  private final long decodedBytes;
+  private final boolean slow;
+  private final @Nullable DBObject explain;
+  private final @Nullable Throwable failure;
+
+  OperationEvent(
+      Kind kind,
+      String collectionName,
+      @Nullable Constraints.ConstraintHost criteria,
+      long queueNanos,
+      long ioNanos,
+      long decodeNanos,
+      int documentCount,
+      long decodedBytes,
+      boolean slow,
+      @Nullable DBObject explain,
+      @Nullable Throwable failure) {
+    this.kind = kind;
+    this.collectionName = collectionName;
+    this.criteria = criteria;
+    this.queueNanos = queueNanos;
+    this.ioNanos = ioNanos;
+    this.decodeNanos = decodeNanos;
+    this.documentCount = documentCount;
+    this.decodedBytes = decodedBytes;
+    this.slow = slow;
+    this.explain = explain;
+    this.failure = failure;
+  }
+
+  /**
+   * @return kind of operation
+   */
+  public Kind kind() {
+    return kind;
+  }
+
+  /**
+   * @return name of the collection
+   */
+  public String collectionName() {
+    return collectionName;
+  }
+
+  /**
+   * Renders criteria as JSON string. Rendering is performed on each call, so it is advisable to
+   * call it only when needed, for example, for slow queries.
+   * @return rendered criteria if operation was performed using criteria
+   */
+  public Optional<String> criteria() {
+    return criteria != null
+        ? Optional.of(Support.stringify(criteria))
+        : Optional.<String>absent();
+  }
+
+  /**
+   * @return time operation spent waiting in executor queue
+   */
+  public long queueNanos() {
+    return queueNanos;
+  }
+
+  /**
+   * @return time operation spent executing, excluding decoding of documents
+   */
+  public long ioNanos() {
+    return ioNanos;
+  }
+
+  /**
+   * @return time operation spent decoding documents
+   */
+  public long decodeNanos() {
+    return decodeNanos;
+  }
+
+  /**
+   * @return number of documents fetched, written or affected by operation
+   */
+  public int documentCount() {
+    return documentCount;
+  }
+
+  /**
+   * @return number of bytes of BSON documents decoded, if known, otherwise {@code 0}
+   */
+  public long decodedBytes() {
+    return decodedBytes;
+  }
+
+  /**
+   * @return {@code true} if execution took longer than configured slow query threshold
+   * @see RepositorySetup.Builder#slowQueryThreshold(long, java.util.concurrent.TimeUnit)
+   */
+  public boolean isSlow() {
+    return slow;
+  }
+
+  /**
+   * Query plan is only captured for slow fetch operations.
+   * @return explain output of the query if captured
+   */
+  public Optional<DBObject> explain() {
+    return Optional.fromNullable(explain);
+  }
+
+  /**
+   * @return failure if operation was not successful
+   */
+  public Optional<Throwable> failure() {
+    return Optional.fromNullable(failure);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("kind", kind)
+        .add("collectionName", collectionName)
+        .add("queueNanos", queueNanos)
+        .add("ioNanos", ioNanos)
+        .add("decodeNanos", decodeNanos)
+        .add("documentCount", documentCount)
+        .add("decodedBytes", decodedBytes)
+        .add("slow", slow)
+        .add("failure", failure)
+        .toString();
+  }
+}
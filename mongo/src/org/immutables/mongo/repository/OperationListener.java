@@ -0,0 +1,36 @@
+/*
+   Copyright 2017 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.mongo.repository;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Listener which is notified after each operation performed by {@link Repositories.Repository
+ * repository} is completed, either successfully or not. Could be used to collect metrics or log
+ * slow queries. Listener is invoked on the executor thread which performed operation, so it should
+ * be fast and thread-safe. Exceptions thrown by listener are not propagated to the operation result,
+ * but passed to uncaught exception handler of the current thread.
+ * @see RepositorySetup.Builder#listener(OperationListener)
+ * @see RepositorySetup.Builder#slowQueryThreshold(long, java.util.concurrent.TimeUnit)
+ */
+@ThreadSafe
+public interface OperationListener {
+  /**
+   * Invoked when operation is completed.
+   * @param event operation metrics
+   */
+  void completed(OperationEvent event);
+}
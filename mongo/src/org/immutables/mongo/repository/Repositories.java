@@ -16,23 +16,50 @@
 package org.immutables.mongo.repository;
 
 import com.google.common.base.Function;
+import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import com.google.gson.TypeAdapter;
 import com.mongodb.BasicDBObject;
+import com.mongodb.BulkWriteException;
+import com.mongodb.BulkWriteOperation;
+import com.mongodb.BulkWriteResult;
+import com.mongodb.Bytes;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
+import com.mongodb.DBDecoderFactory;
 import com.mongodb.DBObject;
+import com.mongodb.MongoException;
+import com.mongodb.QueryOperators;
 import com.mongodb.WriteResult;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnegative;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
+import org.bson.BSONObject;
 import org.immutables.mongo.concurrent.FluentFuture;
 import org.immutables.mongo.concurrent.FluentFutures;
 import org.immutables.mongo.repository.internal.BsonEncoding;
@@ -50,11 +77,29 @@ import static org.immutables.mongo.repository.internal.Support.extractDbObject;
 public final class Repositories {
   private static final int LARGE_BATCH_SIZE = 2000;
   private static final int DEFAULT_EXPECTED_RESULT_SIZE = 500;
+  private static final int DEFAULT_SCAN_BATCH_SIZE = 500;
+  private static final long TAIL_RETRY_INTERVAL_MILLIS = 500;
 
   private static final DBObject EMPTY = new BasicDBObject();
+  private static final String ID_FIELD_NAME = "_id";
 
   private Repositories() {}
 
+  /**
+   * Receives documents as they are decoded during {@link Finder#scanParallel(int, Consumer) parallel
+   * scan}. Consumer is invoked concurrently from executor threads, one thread per partition, so
+   * implementation should be thread-safe.
+   * @param <T> type of document
+   */
+  @ThreadSafe
+  public interface Consumer<T> {
+    /**
+     * Accepts decoded document.
+     * @param document decoded document
+     */
+    void accept(T document);
+  }
+
   /**
    * Base abstract class for repositories.
    * @param <T> type of document
@@ -108,12 +153,113 @@ public final class Repositories {
       }
     }
 
+    private enum SumOf implements Function<List<Integer>, Integer> {
+      FUNCTION;
+      @Override
+      public Integer apply(List<Integer> input) {
+        int sum = 0;
+        for (Integer n : input) {
+          sum += n;
+        }
+        return sum;
+      }
+    }
+
+    /**
+     * Operation callable which measures its execution and reports it to configured
+     * {@link OperationListener}, if any.
+     */
+    private abstract class Measured<V> implements Callable<V> {
+      private final OperationEvent.Kind kind;
+      private final @Nullable Constraints.ConstraintHost criteria;
+      private final long submittedNanos = System.nanoTime();
+      long decodeNanos;
+      long decodedBytes;
+      int documentCount;
+      /** Query to explain if it happens to be slow. */
+      @Nullable DBObject explainQuery;
+
+      Measured(OperationEvent.Kind kind, @Nullable Constraints.ConstraintHost criteria) {
+        this.kind = kind;
+        this.criteria = criteria;
+      }
+
+      abstract V perform() throws Exception;
+
+      final T unmarshal(DBObject result) throws IOException {
+        long startedNanos = System.nanoTime();
+        T document = BsonEncoding.unmarshalDbObject(result, adapter);
+        decodeNanos += System.nanoTime() - startedNanos;
+        documentCount++;
+        return document;
+      }
+
+      @Override
+      public final V call() throws Exception {
+        if (configuration.listener == null) {
+          return perform();
+        }
+        long startedNanos = System.nanoTime();
+        @Nullable Throwable failure = null;
+        try {
+          return perform();
+        } catch (Throwable ex) {
+          failure = ex;
+          throw ex;
+        } finally {
+          report(configuration.listener, startedNanos, System.nanoTime(), failure);
+        }
+      }
+
+      private void report(
+          OperationListener listener,
+          long startedNanos,
+          long finishedNanos,
+          @Nullable Throwable failure) {
+        long executionNanos = finishedNanos - startedNanos;
+        boolean slow = executionNanos > configuration.slowQueryThresholdNanos;
+        @Nullable DBObject explain = slow && failure == null && explainQuery != null
+            ? explain(explainQuery)
+            : null;
+
+        OperationEvent event = new OperationEvent(
+            kind,
+            collectionName,
+            criteria,
+            startedNanos - submittedNanos,
+            executionNanos - decodeNanos,
+            decodeNanos,
+            documentCount,
+            decodedBytes,
+            slow,
+            explain,
+            failure);
+
+        try {
+          listener.completed(event);
+        } catch (RuntimeException ex) {
+          Thread thread = Thread.currentThread();
+          thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+        }
+      }
+
+      @Nullable
+      private DBObject explain(DBObject query) {
+        try {
+          return collection().find(query).explain();
+        } catch (RuntimeException ex) {
+          // explain is best effort and may not be supported
+          return null;
+        }
+      }
+    }
+
     protected final FluentFuture<Void> doIndex(
         final Constraints.Constraint fields,
         final Constraints.Constraint options) {
-      return submit(new Callable<Void>() {
+      return submit(new Measured<Void>(OperationEvent.Kind.INDEX, null) {
         @Override
-        public Void call() {
+        Void perform() {
           collection().createIndex(
               extractDbObject(fields),
               extractDbObject(options));
@@ -126,14 +272,16 @@ public final class Repositories {
       if (documents.isEmpty()) {
         return FluentFutures.from(Futures.immediateFuture(0));
       }
-      return submit(new Callable<WriteResult>() {
+      return submit(new Measured<WriteResult>(OperationEvent.Kind.INSERT, null) {
         @Override
-        public WriteResult call() {
+        WriteResult perform() {
           DBCollection collection = collection();
-          return collection.insert(
+          WriteResult result = collection.insert(
                   BsonEncoding.wrapInsertObjectList(documents, adapter),
                   collection.getWriteConcern(),
                   BsonEncoding.encoder());
+          documentCount = documents.size();
+          return result;
         }
       }).lazyTransform(GetN.FUNCTION);
     }
@@ -148,9 +296,9 @@ public final class Repositories {
       checkNotNull(criteria, "criteria");
       checkNotNull(document, "document");
 
-      return submit(new Callable<Optional<T>>() {
+      return submit(new Measured<Optional<T>>(OperationEvent.Kind.REPLACE, criteria) {
         @Override
-        public Optional<T> call() throws Exception {
+        Optional<T> perform() throws Exception {
           final DBCollection collection = collection();
 
           // TODO this should be changed with findOneAndReplace mongo method in v3
@@ -164,7 +312,7 @@ public final class Repositories {
               upsert);
 
           if (result != null) {
-            return Optional.of(BsonEncoding.unmarshalDbObject(result, adapter));
+            return Optional.of(unmarshal(result));
           }
 
           return Optional.absent();
@@ -184,9 +332,9 @@ public final class Repositories {
       checkArgument(!upsert || !remove);
       checkArgument(!remove || !newOrOld);
       checkNotNull(criteria);
-      return submit(new Callable<Optional<T>>() {
+      return submit(new Measured<Optional<T>>(OperationEvent.Kind.MODIFY, criteria) {
         @Override
-        public Optional<T> call() throws Exception {
+        Optional<T> perform() throws Exception {
           DBCollection collection = collection();
 
           @Nullable DBObject result = collection.findAndModify(
@@ -199,7 +347,7 @@ public final class Repositories {
               upsert);
 
           if (result != null) {
-            return Optional.of(BsonEncoding.unmarshalDbObject(result, adapter));
+            return Optional.of(unmarshal(result));
           }
 
           return Optional.absent();
@@ -214,17 +362,19 @@ public final class Repositories {
         final boolean multiple) {
       checkArgument(!multiple || !upsert);
       checkNotNull(criteria);
-      return submit(new Callable<WriteResult>() {
+      return submit(new Measured<WriteResult>(OperationEvent.Kind.UPDATE, criteria) {
         @Override
-        public WriteResult call() {
+        WriteResult perform() {
           DBCollection collection = collection();
-          return collection.update(
+          WriteResult result = collection.update(
               extractDbObject(criteria),
               extractDbObject(update),
               upsert,
               multiple,
               collection.getWriteConcern(),
               BsonEncoding.encoder());
+          documentCount = result.getN();
+          return result;
         }
       }).lazyTransform(GetN.FUNCTION);
     }
@@ -232,13 +382,15 @@ public final class Repositories {
     protected final FluentFuture<Integer> doDelete(
         final Constraints.ConstraintHost criteria) {
       checkNotNull(criteria);
-      return submit(new Callable<WriteResult>() {
+      return submit(new Measured<WriteResult>(OperationEvent.Kind.DELETE, criteria) {
         @Override
-        public WriteResult call() {
+        WriteResult perform() {
           DBCollection collection = collection();
-          return collection.remove(
+          WriteResult result = collection.remove(
               extractDbObject(criteria),
               collection.getWriteConcern());
+          documentCount = result.getN();
+          return result;
         }
       }).lazyTransform(GetN.FUNCTION);
     }
@@ -248,17 +400,19 @@ public final class Repositories {
         final T document) {
       checkNotNull(criteria);
       checkNotNull(document);
-      return submit(new Callable<WriteResult>() {
+      return submit(new Measured<WriteResult>(OperationEvent.Kind.UPSERT, criteria) {
         @Override
-        public WriteResult call() {
+        WriteResult perform() {
           DBCollection collection = collection();
-          return collection.update(
+          WriteResult result = collection.update(
               extractDbObject(criteria),
               BsonEncoding.wrapUpdateObject(document, adapter),
               true,
               false,
               collection.getWriteConcern(),
               BsonEncoding.encoder());
+          documentCount = result.getN();
+          return result;
         }
       }).lazyTransform(GetN.FUNCTION);
     }
@@ -269,15 +423,17 @@ public final class Repositories {
         final Constraints.Constraint exclusion,
         final @Nonnegative int skip,
         final @Nonnegative int limit) {
-      return submit(new Callable<List<T>>() {
+      return submit(new Measured<List<T>>(OperationEvent.Kind.FETCH, criteria) {
         @SuppressWarnings("resource")
         @Override
-        public List<T> call() throws Exception {
+        List<T> perform() throws Exception {
           DBCollection collection = collection();
 
           @Nullable DBObject query = criteria != null ? extractDbObject(criteria) : null;
           @Nullable DBObject keys = !exclusion.isNil() ? extractDbObject(exclusion) : null;
 
+          explainQuery = query != null ? query : EMPTY;
+
           DBCursor cursor = collection.find(query, keys);
 
           if (!ordering.isNil()) {
@@ -299,13 +455,300 @@ public final class Repositories {
             }
           }
 
-          cursor.setDecoderFactory(BsonEncoding.newResultDecoderFor(adapter, expectedSize));
+          DBDecoderFactory decoder = BsonEncoding.newResultDecoderFor(adapter, expectedSize);
+          cursor.setDecoderFactory(decoder);
 
           List<DBObject> array = cursor.toArray();
-          return BsonEncoding.unwrapResultObjectList(array, adapter);
+          List<T> results = BsonEncoding.unwrapResultObjectList(array, adapter);
+
+          decodeNanos = BsonEncoding.decodingNanos(decoder);
+          decodedBytes = BsonEncoding.decodedBytes(decoder);
+          documentCount = results.size();
+          return results;
         }
       });
     }
+
+    FluentFuture<Void> doCoalescedUpserts(final List<PendingUpsert<T>> batch) {
+      return submit(new Measured<Void>(OperationEvent.Kind.UPSERT, null) {
+        @Override
+        Void perform() {
+          BulkWriteResult result;
+          try {
+            DBCollection collection = collection();
+            BulkWriteOperation bulk = collection.initializeOrderedBulkOperation();
+            int requests = 0;
+            for (PendingUpsert<T> upsert : batch) {
+              if (upsert.document != null) {
+                bulk.find(upsert.query).upsert().replaceOne(BsonEncoding.wrapUpdateObject(upsert.document, adapter));
+                requests++;
+              }
+              if (upsert.update != null) {
+                bulk.find(upsert.query).upsert().updateOne(upsert.update);
+                requests++;
+              }
+              upsert.lastRequestIndex = requests - 1;
+            }
+            result = bulk.execute(collection.getWriteConcern());
+          } catch (BulkWriteException ex) {
+            // Ordered bulk write stops on the first write error, preceding requests are applied.
+            // Write concern error is reported without write errors, then nothing is considered applied
+            int failedIndex = !ex.getWriteErrors().isEmpty() ? ex.getWriteErrors().get(0).getIndex() : 0;
+            for (PendingUpsert<T> upsert : batch) {
+              if (upsert.lastRequestIndex < failedIndex) {
+                upsert.complete(1);
+                documentCount++;
+              } else {
+                upsert.fail(ex);
+              }
+            }
+            throw ex;
+          } catch (RuntimeException ex) {
+            for (PendingUpsert<T> upsert : batch) {
+              upsert.fail(ex);
+            }
+            throw ex;
+          }
+          // Each acknowledged upsert either matched or inserted exactly one document
+          int count = result.isAcknowledged() ? 1 : 0;
+          for (PendingUpsert<T> upsert : batch) {
+            upsert.complete(count);
+          }
+          documentCount = count * batch.size();
+          return null;
+        }
+      });
+    }
+
+    protected final FluentFuture<Integer> doScanParallel(
+        final @Nullable Constraints.ConstraintHost criteria,
+        final Constraints.Constraint exclusion,
+        final @Nonnegative int partitions,
+        final Consumer<? super T> consumer) {
+      checkArgument(partitions > 0, "number of partitions should be positive");
+      checkNotNull(consumer);
+      final @Nullable DBObject query = criteria != null ? extractDbObject(criteria) : null;
+      final @Nullable DBObject keys = !exclusion.isNil() ? extractDbObject(exclusion) : null;
+
+      return submit(new Callable<List<Object>>() {
+        @Override
+        public List<Object> call() throws Exception {
+          return partitionBoundaries(query, partitions);
+        }
+      }).asyncTransform(new AsyncFunction<List<Object>, Integer>() {
+        @Override
+        public ListenableFuture<Integer> apply(List<Object> boundaries) {
+          final AtomicBoolean failed = new AtomicBoolean();
+          final List<ListenableFuture<Integer>> scans = new ArrayList<>(boundaries.size() + 1);
+          for (int i = 0; i <= boundaries.size(); i++) {
+            @Nullable Object lower = i > 0 ? boundaries.get(i - 1) : null;
+            @Nullable Object upper = i < boundaries.size() ? boundaries.get(i) : null;
+            scans.add(submit(new PartitionScan(partitionQuery(query, lower, upper), keys, consumer, failed)));
+          }
+          // Failure of one partition stops others, but result is completed only after all of them
+          // are done, so consumer is never invoked after returned future is completed
+          return Futures.transformAsync(Futures.successfulAsList(scans), new AsyncFunction<List<Integer>, Integer>() {
+            @Override
+            public ListenableFuture<Integer> apply(List<Integer> completed) {
+              return Futures.transform(Futures.allAsList(scans), SumOf.FUNCTION);
+            }
+          });
+        }
+      });
+    }
+
+    /**
+     * Splits matching documents into ranges of roughly equal size by {@code _id}. Boundaries are
+     * found in a single pass over matching documents in {@code _id} order, taking every
+     * {@code count / partitions}-th identifier. Only {@code _id} is returned, so when query has no
+     * conditions other than on {@code _id} it is covered by the index, otherwise server still
+     * examines documents to match them. Returned list contains lower (inclusive) boundary of each
+     * partition except first one.
+     */
+    private List<Object> partitionBoundaries(@Nullable DBObject query, int partitions) {
+      DBCollection collection = collection();
+      long count = collection.count(query != null ? query : EMPTY);
+      long step = count / partitions;
+      List<Object> boundaries = new ArrayList<>(partitions);
+      if (step == 0) {
+        return boundaries;
+      }
+      DBCursor cursor = collection.find(query, new BasicDBObject(ID_FIELD_NAME, 1))
+          .sort(new BasicDBObject(ID_FIELD_NAME, 1))
+          .batchSize(LARGE_BATCH_SIZE);
+      try {
+        for (long position = 0; boundaries.size() < partitions - 1 && cursor.hasNext(); position++) {
+          DBObject next = cursor.next();
+          if (position > 0 && position % step == 0) {
+            boundaries.add(next.get(ID_FIELD_NAME));
+          }
+        }
+      } finally {
+        cursor.close();
+      }
+      return boundaries;
+    }
+
+    private static DBObject partitionQuery(@Nullable DBObject query, @Nullable Object lower, @Nullable Object upper) {
+      BasicDBObject range = new BasicDBObject();
+      if (lower != null) {
+        range.append(QueryOperators.GTE, lower);
+      }
+      if (upper != null) {
+        range.append(QueryOperators.LT, upper);
+      }
+      return withIdRange(query, range);
+    }
+
+    private static DBObject withIdRange(@Nullable DBObject query, BasicDBObject range) {
+      if (range.isEmpty()) {
+        return query != null ? query : EMPTY;
+      }
+      DBObject idRange = new BasicDBObject(ID_FIELD_NAME, range);
+      if (query == null || query.keySet().isEmpty()) {
+        return idRange;
+      }
+      return new BasicDBObject(QueryOperators.AND, ImmutableList.of(query, idRange));
+    }
+
+    private final class PartitionScan implements Callable<Integer> {
+      private final DBObject query;
+      private final @Nullable DBObject keys;
+      private final Consumer<? super T> consumer;
+      private final AtomicBoolean failed;
+
+      PartitionScan(DBObject query, @Nullable DBObject keys, Consumer<? super T> consumer, AtomicBoolean failed) {
+        this.query = query;
+        this.keys = keys;
+        this.consumer = consumer;
+        this.failed = failed;
+      }
+
+      @Override
+      public Integer call() throws Exception {
+        DBCursor cursor = collection().find(query, keys);
+        // batch size bounds number of documents decoded but not yet consumed
+        cursor.batchSize(DEFAULT_SCAN_BATCH_SIZE);
+        cursor.setDecoderFactory(BsonEncoding.newResultDecoderFor(adapter, DEFAULT_SCAN_BATCH_SIZE));
+        int count = 0;
+        try {
+          while (!failed.get() && cursor.hasNext()) {
+            consumer.accept(BsonEncoding.unwrapResultObject(cursor.next(), adapter));
+            count++;
+          }
+        } catch (Exception ex) {
+          failed.set(true);
+          throw ex;
+        } finally {
+          cursor.close();
+        }
+        return count;
+      }
+    }
+
+    protected final FluentFuture<Void> doTail(
+        final @Nullable Constraints.ConstraintHost criteria,
+        final Constraints.Constraint exclusion,
+        final Consumer<? super T> consumer,
+        Executor executor) {
+      checkNotNull(consumer);
+      checkNotNull(executor);
+      @Nullable DBObject query = criteria != null ? extractDbObject(criteria) : null;
+      @Nullable DBObject keys = !exclusion.isNil() ? extractDbObject(exclusion) : null;
+
+      final Tailing tailing = new Tailing(query, keys, consumer);
+      ListenableFutureTask<Void> task = ListenableFutureTask.create(tailing);
+      task.addListener(new Runnable() {
+        @Override
+        public void run() {
+          // completion listener, only cancellation matters as tailing never completes otherwise
+          tailing.stopped = true;
+        }
+      }, MoreExecutors.directExecutor());
+      executor.execute(task);
+      return FluentFutures.from(task);
+    }
+
+    private final class Tailing implements Callable<Void> {
+      private final @Nullable DBObject query;
+      private final @Nullable DBObject keys;
+      private final Consumer<? super T> consumer;
+      volatile boolean stopped;
+
+      Tailing(@Nullable DBObject query, @Nullable DBObject keys, Consumer<? super T> consumer) {
+        this.query = query;
+        this.keys = keys;
+        this.consumer = consumer;
+      }
+
+      private boolean isStopped() {
+        return stopped || Thread.currentThread().isInterrupted();
+      }
+
+      @Override
+      public Void call() throws Exception {
+        // Server rejects tailable cursors on collections which are not capped,
+        // such collections are polled instead
+        boolean capped = isCapped();
+        @Nullable Object lastSeenId = null;
+        while (!isStopped()) {
+          BasicDBObject range = lastSeenId != null
+              ? new BasicDBObject(QueryOperators.GT, lastSeenId)
+              : new BasicDBObject();
+
+          DBCursor cursor = collection().find(withIdRange(query, range), keys);
+          if (capped) {
+            cursor.addOption(Bytes.QUERYOPTION_TAILABLE)
+                .addOption(Bytes.QUERYOPTION_AWAITDATA);
+          } else {
+            cursor.sort(new BasicDBObject(ID_FIELD_NAME, 1));
+          }
+
+          cursor.setDecoderFactory(BsonEncoding.newResultDecoderWithIdsFor(adapter, DEFAULT_SCAN_BATCH_SIZE));
+          try {
+            while (!isStopped()) {
+              @Nullable DBObject next;
+              if (capped) {
+                // Blocking hasNext() of tailable cursor waits for data inside the driver ignoring
+                // interruption, while tryNext() returns after single await period of the server,
+                // so cancellation is noticed
+                next = cursor.tryNext();
+                if (next == null) {
+                  if (cursor.getCursorId() == 0) {
+                    // cursor was killed by server or collection was empty
+                    break;
+                  }
+                  continue;
+                }
+              } else if (cursor.hasNext()) {
+                next = cursor.next();
+              } else {
+                break;
+              }
+              lastSeenId = BsonEncoding.unwrapResultId(next);
+              consumer.accept(BsonEncoding.unwrapResultObject(next, adapter));
+            }
+          } finally {
+            cursor.close();
+          }
+          if (!isStopped()) {
+            // Cursor is exhausted: collection is not capped, was empty or cursor was killed
+            // by server, so we requery, resuming after last seen document
+            Thread.sleep(TAIL_RETRY_INTERVAL_MILLIS);
+          }
+        }
+        return null;
+      }
+    }
+
+    private boolean isCapped() {
+      try {
+        return collection().isCapped();
+      } catch (MongoException ex) {
+        // collection stats unavailable, polling works regardless of collection kind
+        return false;
+      }
+    }
   }
 
   /**
@@ -385,8 +828,22 @@ public final class Repositories {
    */
   @NotThreadSafe
   public static abstract class Updater<T> extends UpdatatingOperation<T> {
+    @Nullable
+    private final CoalescingWriter<T> writer;
+
     protected Updater(Repository<T> repository) {
       super(repository);
+      this.writer = null;
+    }
+
+    /**
+     * Creates updater which will perform {@link #upsert()} via coalescing writer.
+     * @param repository repository
+     * @param writer coalescing writer
+     */
+    protected Updater(Repository<T> repository, CoalescingWriter<T> writer) {
+      super(repository);
+      this.writer = checkNotNull(writer);
     }
 
     /**
@@ -395,9 +852,15 @@ public final class Repositories {
      * <em>Note: Upsert operation requires special care to set or init all required attributes in case of insertion
      * (including but not limited to '_id'), so that valid document could be inserted into collection.
      * </em>
+     * <p>
+     * If this updater was obtained from {@link CoalescingWriter}, then upsert will be deferred
+     * and possibly merged with other pending upserts for the same criteria.
      * @return future of number of processed document (expected to be 1)
      */
     public FluentFuture<Integer> upsert() {
+      if (writer != null) {
+        return writer.doUpsertUpdate(criteria, collectRequiredUpdate());
+      }
       return repository.doUpdate(criteria, collectRequiredUpdate(), true, false);
     }
 
@@ -418,6 +881,302 @@ public final class Repositories {
     }
   }
 
+  /**
+   * Base class for writers which coalesce repeated upserts of the same document. Upserts are not
+   * sent immediately, but kept pending until flushed. Upserts matching the same criteria, typically
+   * by {@code _id}, are merged: document replacement supersedes any preceding pending changes,
+   * while update with {@code $set} and {@code $inc} operators are merged into preceding pending
+   * update when possible. Pending upserts are flushed as a single ordered bulk write when
+   * {@code flushInterval} elapses since first pending upsert, when the number of pending upserts
+   * reaches {@code maxBatchSize} or when {@link #flush()} is called explicitly.
+   * <p>
+   * Futures returned for each upsert complete when the bulk write they were included in completes,
+   * with {@code 1} as the number of matched or inserted documents, or {@code 0} if write concern
+   * is unacknowledged. As bulk write is ordered, when it fails, futures of upserts written before
+   * the failed request still complete successfully while the rest fail.
+   * Only upserts are coalesced, other operations performed using repository are not ordered with
+   * regard to pending upserts.
+   * @param <T> document type
+   */
+  @ThreadSafe
+  public static abstract class CoalescingWriter<T> {
+    protected final Repository<T> repository;
+    private final long flushIntervalNanos;
+    private final int maxBatchSize;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private List<PendingUpsert<T>> pending = new ArrayList<>();
+    // Guarded by lock
+    private final Map<DBObject, PendingUpsert<T>> pendingByCriteria = new HashMap<>();
+    // Guarded by lock
+    private @Nullable ScheduledFuture<?> scheduledFlush;
+    // Guarded by lock, counts flushes so that scheduled flush which is already superseded is skipped
+    private long flushCount;
+    // Guarded by lock, bulk writes are chained, so they are performed in order
+    private ListenableFuture<?> lastFlush = Futures.immediateFuture(null);
+
+    protected CoalescingWriter(
+        Repository<T> repository,
+        long flushInterval,
+        TimeUnit unit,
+        @Nonnegative int maxBatchSize) {
+      checkArgument(flushInterval > 0, "flush interval should be positive");
+      checkArgument(maxBatchSize > 0, "max batch size should be positive");
+      this.repository = checkNotNull(repository);
+      this.flushIntervalNanos = unit.toNanos(flushInterval);
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    protected final FluentFuture<Integer> doUpsert(Constraints.ConstraintHost criteria, T document) {
+      checkNotNull(criteria);
+      checkNotNull(document);
+      DBObject query = extractDbObject(criteria);
+      SettableFuture<Integer> future = SettableFuture.create();
+      synchronized (lock) {
+        @Nullable PendingUpsert<T> upsert = pendingByCriteria.get(query);
+        if (upsert == null) {
+          upsert = enqueue(query);
+        }
+        upsert.replace(document);
+        upsert.futures.add(future);
+        onEnqueued();
+      }
+      return FluentFutures.from(future);
+    }
+
+    final FluentFuture<Integer> doUpsertUpdate(Constraints.ConstraintHost criteria, Constraints.Constraint update) {
+      checkNotNull(criteria);
+      DBObject query = extractDbObject(criteria);
+      DBObject updateObject = extractDbObject(update);
+      SettableFuture<Integer> future = SettableFuture.create();
+      synchronized (lock) {
+        @Nullable PendingUpsert<T> upsert = pendingByCriteria.get(query);
+        if (upsert == null || !upsert.merge(updateObject)) {
+          upsert = enqueue(query);
+          upsert.merge(updateObject);
+        }
+        upsert.futures.add(future);
+        onEnqueued();
+      }
+      return FluentFutures.from(future);
+    }
+
+    private PendingUpsert<T> enqueue(DBObject query) {
+      PendingUpsert<T> upsert = new PendingUpsert<>(query);
+      pending.add(upsert);
+      pendingByCriteria.put(query, upsert);
+      return upsert;
+    }
+
+    private void onEnqueued() {
+      if (pending.size() >= maxBatchSize) {
+        flushPending();
+      } else if (scheduledFlush == null) {
+        final long scheduledAfterFlush = flushCount;
+        scheduledFlush = FlushScheduler.INSTANCE.schedule(new Runnable() {
+          @Override
+          public void run() {
+            synchronized (lock) {
+              if (flushCount == scheduledAfterFlush) {
+                flushPending();
+              }
+            }
+          }
+        }, flushIntervalNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    /**
+     * Flushes all pending upserts.
+     * @return future which completes when pending upserts are written
+     */
+    public final FluentFuture<Void> flush() {
+      synchronized (lock) {
+        return flushPending();
+      }
+    }
+
+    private FluentFuture<Void> flushPending() {
+      flushCount++;
+      if (scheduledFlush != null) {
+        scheduledFlush.cancel(false);
+        scheduledFlush = null;
+      }
+      if (pending.isEmpty()) {
+        return FluentFutures.from(lastFlush).transform(Functions.<Void>constant(null));
+      }
+      final List<PendingUpsert<T>> batch = pending;
+      pending = new ArrayList<>();
+      pendingByCriteria.clear();
+
+      final SettableFuture<Void> flushed = SettableFuture.create();
+      lastFlush.addListener(new Runnable() {
+        @Override
+        public void run() {
+          flushed.setFuture(repository.doCoalescedUpserts(batch));
+        }
+      }, MoreExecutors.directExecutor());
+      lastFlush = flushed;
+      return FluentFutures.from(flushed);
+    }
+  }
+
+  /**
+   * Lazily initialized timer thread which triggers scheduled flushes of coalescing writers. Bulk
+   * writes themselves are performed on repository executor.
+   */
+  private static final class FlushScheduler {
+    static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder()
+            .setNameFormat(Repositories.class.getPackage().getName() + "-flush-%s")
+            .setDaemon(true)
+            .build());
+  }
+
+  /**
+   * Pending upsert matching the same criteria. Document replacement, if any, is applied before
+   * update.
+   */
+  @NotThreadSafe
+  static final class PendingUpsert<T> {
+    private static final String SET = "$set";
+    private static final String INC = "$inc";
+
+    final DBObject query;
+    @Nullable
+    T document;
+    @Nullable
+    DBObject update;
+    final List<SettableFuture<Integer>> futures = new ArrayList<>(2);
+    /** Index of the last bulk write request issued for this upsert. */
+    int lastRequestIndex;
+
+    PendingUpsert(DBObject query) {
+      this.query = query;
+    }
+
+    void replace(T document) {
+      this.document = document;
+      this.update = null;
+    }
+
+    /**
+     * Merges update into pending one if both only contains {@code $set} and {@code $inc}
+     * operators and there are no conflicts between fields.
+     * @return {@code true} if merged
+     */
+    boolean merge(DBObject next) {
+      if (update == null) {
+        update = next;
+        return true;
+      }
+      if (!isSetOrIncOnly(update) || !isSetOrIncOnly(next)) {
+        return false;
+      }
+      BasicDBObject set = copyOperator(update, SET);
+      BasicDBObject inc = copyOperator(update, INC);
+
+      for (String field : operator(next, INC).keySet()) {
+        for (String setField : set.keySet()) {
+          if (overlaps(field, setField)) {
+            return false;
+          }
+        }
+        for (String incField : inc.keySet()) {
+          if (overlaps(field, incField) && !field.equals(incField)) {
+            return false;
+          }
+        }
+      }
+
+      BSONObject nextSet = operator(next, SET);
+      for (String field : nextSet.keySet()) {
+        removeOverlapping(set, field);
+        removeOverlapping(inc, field);
+        set.put(field, nextSet.get(field));
+      }
+
+      BSONObject nextInc = operator(next, INC);
+      for (String field : nextInc.keySet()) {
+        Object increment = nextInc.get(field);
+        @Nullable Object existing = inc.get(field);
+        if (existing != null) {
+          if (!(existing instanceof Number) || !(increment instanceof Number)) {
+            return false;
+          }
+          increment = add((Number) existing, (Number) increment);
+        }
+        inc.put(field, increment);
+      }
+
+      BasicDBObject merged = new BasicDBObject(2);
+      if (!set.isEmpty()) {
+        merged.put(SET, set);
+      }
+      if (!inc.isEmpty()) {
+        merged.put(INC, inc);
+      }
+      update = merged;
+      return true;
+    }
+
+    void complete(int count) {
+      for (SettableFuture<Integer> future : futures) {
+        future.set(count);
+      }
+    }
+
+    void fail(Throwable failure) {
+      for (SettableFuture<Integer> future : futures) {
+        future.setException(failure);
+      }
+    }
+
+    private static boolean isSetOrIncOnly(DBObject update) {
+      for (String operator : update.keySet()) {
+        if (!operator.equals(SET) && !operator.equals(INC)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static BSONObject operator(DBObject update, String operator) {
+      @Nullable Object fields = update.get(operator);
+      return fields != null ? (BSONObject) fields : EMPTY;
+    }
+
+    private static BasicDBObject copyOperator(DBObject update, String operator) {
+      BasicDBObject copy = new BasicDBObject();
+      copy.putAll(operator(update, operator));
+      return copy;
+    }
+
+    private static void removeOverlapping(BasicDBObject fields, String field) {
+      for (Iterator<String> it = fields.keySet().iterator(); it.hasNext();) {
+        if (overlaps(field, it.next())) {
+          it.remove();
+        }
+      }
+    }
+
+    private static boolean overlaps(String a, String b) {
+      return a.equals(b) || a.startsWith(b + ".") || b.startsWith(a + ".");
+    }
+
+    private static Number add(Number a, Number b) {
+      if (a instanceof Double || a instanceof Float || b instanceof Double || b instanceof Float) {
+        return a.doubleValue() + b.doubleValue();
+      }
+      long sum = a.longValue() + b.longValue();
+      if (a instanceof Long || b instanceof Long || sum != (int) sum) {
+        return sum;
+      }
+      return (int) sum;
+    }
+  }
+
   /**
    * Provides base configuration methods and action methods to perform 'modify' step in
    * 'findAndModify' operation.
@@ -733,5 +1492,75 @@ public final class Repositories {
         }
       });
     }
+
+    /**
+     * Scans all matching documents splitting them into a number of partitions by {@code _id} ranges.
+     * Partitions are fetched and decoded concurrently on the repository executor and each decoded
+     * document is passed to the {@code consumer} as soon as it is available, rather than being
+     * collected into a list. Only a single cursor batch per partition is kept in memory at a time.
+     * <p>
+     * Ordering is not applied, documents are delivered in no particular order and
+     * {@code consumer} may be invoked concurrently from different threads. {@link #skip(int)} is
+     * not supported for parallel scans.
+     * @param partitions number of partitions to split collection into, positive number
+     * @param consumer thread-safe consumer of decoded documents
+     * @return future of number of scanned documents which completes when all partitions are done
+     */
+    public final FluentFuture<Integer> scanParallel(@Nonnegative int partitions, Consumer<? super T> consumer) {
+      checkState(numberToSkip == 0, "Cannot use .skip() with .scanParallel()");
+      return repository.doScanParallel(criteria, exclusion, partitions, consumer);
+    }
+
+    /**
+     * Opens tailable cursor on matching documents and passes each decoded document to the
+     * {@code consumer} as it arrives. Intended for use with capped collections, for which cursor
+     * will remain open and wait for new documents. Collections which are not capped do not
+     * support tailable cursors and are polled instead: documents are queried in {@code _id} order
+     * periodically. In both cases, when cursor is exhausted or closed, query is repeated resuming
+     * after the {@code _id} of the last seen document, which requires identifiers to be
+     * monotonically increasing, such as
+     * {@link org.immutables.mongo.types.Id ObjectId}. To resume subscription after restart, tail
+     * finder with criteria which selects documents having greater {@code _id} than last processed.
+     * <p>
+     * Subscription occupies one thread of the supplied {@code executor} for its whole duration,
+     * so it is not run on the repository executor, where it would hold one of the threads used by
+     * other operations. Consumer is invoked from that thread sequentially, slow consumer will just
+     * slow down reading from cursor. Ordering and {@link #skip(int)} are not supported for tailing.
+     * @param consumer consumer of decoded documents
+     * @param executor executor to run subscription, should have a thread available for it
+     * @return future which will only complete on failure, {@link FluentFuture#cancel(boolean)
+     *         cancel} it to close subscription, which is noticed within await period of the
+     *         server for capped collections.
+     */
+    public final FluentFuture<Void> tail(Consumer<? super T> consumer, Executor executor) {
+      checkState(numberToSkip == 0, "Cannot use .skip() with .tail()");
+      checkState(ordering.isNil(), "Cannot use ordering with .tail()");
+      return repository.doTail(criteria, exclusion, consumer, executor);
+    }
+
+    /**
+     * Opens tailable cursor on matching documents and puts each decoded document into the bounded
+     * {@code queue}. When queue is full, reading from cursor is suspended until there will be space
+     * available.
+     * @see #tail(Consumer, Executor)
+     * @param queue blocking queue receiving decoded documents
+     * @param executor executor to run subscription, should have a thread available for it
+     * @return future which will only complete on failure, {@link FluentFuture#cancel(boolean)
+     *         cancel} it with interruption to close subscription.
+     */
+    public final FluentFuture<Void> tail(final BlockingQueue<? super T> queue, Executor executor) {
+      checkNotNull(queue);
+      return tail(new Consumer<T>() {
+        @Override
+        public void accept(T document) {
+          try {
+            queue.put(document);
+          } catch (InterruptedException ex) {
+            // subscription is cancelled, interrupted status is checked by tailing loop
+            Thread.currentThread().interrupt();
+          }
+        }
+      }, executor);
+    }
   }
 }
@@ -27,12 +27,12 @@ import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
 import com.mongodb.ReadPreference;
 import com.mongodb.WriteConcern;
+import org.immutables.gson.adapter.IndexedTypeAdapterFactory;
 import org.immutables.mongo.repository.Repositories.Repository;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
-import java.util.ServiceLoader;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadFactory;
@@ -57,11 +57,21 @@ public final class RepositorySetup {
   final ListeningExecutorService executor;
   final Gson gson;
   final DB database;
+  @Nullable
+  final OperationListener listener;
+  final long slowQueryThresholdNanos;
 
-  private RepositorySetup(ListeningExecutorService executor, DB database, Gson gson) {
+  private RepositorySetup(
+      ListeningExecutorService executor,
+      DB database,
+      Gson gson,
+      @Nullable OperationListener listener,
+      long slowQueryThresholdNanos) {
     this.executor = executor;
     this.database = database;
     this.gson = gson;
+    this.listener = listener;
+    this.slowQueryThresholdNanos = slowQueryThresholdNanos;
   }
 
   /**
@@ -85,6 +95,9 @@ public final class RepositorySetup {
     private DB database;
     @Nullable
     private Gson gson;
+    @Nullable
+    private OperationListener listener;
+    private long slowQueryThresholdNanos = Long.MAX_VALUE;
 
     private Builder() {}
 
@@ -130,7 +143,8 @@ public final class RepositorySetup {
      * </pre>
      * 
      * The factory registration shown above is done by default when using
-     * {@link RepositorySetup#forUri(String)} to create setup.
+     * {@link RepositorySetup#forUri(String)} to create setup, with all service providers
+     * aggregated by {@link IndexedTypeAdapterFactory} to dispatch by type.
      * @param gson configured {@link Gson} instance
      * @return {@code this}
      */
@@ -139,6 +153,34 @@ public final class RepositorySetup {
       return this;
     }
 
+    /**
+     * Configures listener which will be notified with metrics of each completed repository
+     * operation, such as time spent in executor queue, in I/O and decoding and number of
+     * documents.
+     * @param listener operation listener
+     * @return {@code this}
+     */
+    public Builder listener(OperationListener listener) {
+      this.listener = checkNotNull(listener);
+      return this;
+    }
+
+    /**
+     * Configures threshold for operation execution time, exceeding which operation will be
+     * {@link OperationEvent#isSlow() reported as slow} to the {@link #listener(OperationListener)
+     * listener}. For slow fetch operations query plan ({@link OperationEvent#explain() explain}) is
+     * captured by issuing an additional query, so threshold should not be set too low. By default
+     * there's no threshold.
+     * @param duration threshold duration, positive
+     * @param unit time unit of duration
+     * @return {@code this}
+     */
+    public Builder slowQueryThreshold(long duration, TimeUnit unit) {
+      checkArgument(duration > 0, "threshold duration should be positive");
+      this.slowQueryThresholdNanos = unit.toNanos(duration);
+      return this;
+    }
+
     /**
      * Builds unmodifiable instance of {@link RepositorySetup}.
      * @return repository setup instance.
@@ -147,7 +189,9 @@ public final class RepositorySetup {
       checkState(executor != null, "executor is not set");
       checkState(database != null, "database is not set");
       checkState(gson != null, "gson is not set");
-      return new RepositorySetup(executor, database, gson);
+      checkState(listener != null || slowQueryThresholdNanos == Long.MAX_VALUE,
+          "slow query threshold requires listener to be set");
+      return new RepositorySetup(executor, database, gson, listener, slowQueryThresholdNanos);
     }
   }
 
@@ -185,9 +229,7 @@ public final class RepositorySetup {
 
   private static Gson createGson() {
     GsonBuilder gsonBuilder = new GsonBuilder();
-    for (TypeAdapterFactory factory : ServiceLoader.load(TypeAdapterFactory.class)) {
-      gsonBuilder.registerTypeAdapterFactory(factory);
-    }
+    gsonBuilder.registerTypeAdapterFactory(IndexedTypeAdapterFactory.loadServices());
     return gsonBuilder.create();
   }
 
@@ -46,6 +46,8 @@ import org.bson.BSONObject;
 import org.bson.BasicBSONDecoder;
 import org.bson.BasicBSONEncoder;
 import org.bson.BsonBinaryReader;
+import org.bson.LazyBSONCallback;
+import org.bson.LazyBSONObject;
 import org.bson.codecs.DecoderContext;
 import org.bson.io.BasicOutputBuffer;
 import org.bson.io.OutputBuffer;
@@ -57,12 +59,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
 
 /**
@@ -83,6 +88,8 @@ public final class BsonEncoding {
    */
   private static final String PREENCODED_VALUE_WRAPPER_FIELD_NAME = "$";
 
+  private static final String ID_FIELD_NAME = "_id";
+
   private BsonEncoding() {}
 
   /**
@@ -564,24 +571,122 @@ public final class BsonEncoding {
     }
 
     // Safe as long as caller will use same T for decoder and unwrap
-    @SuppressWarnings("unchecked") List<T> results = ((ResultDecoder<T>) result.get(0)).results;
+    @SuppressWarnings("unchecked") Queue<T> results = ((ResultDecoder<T>) result.get(0)).results;
     return ImmutableList.copyOf(results);
   }
 
+  /**
+   * Unwraps single document returned by cursor iteration when cursor was configured with
+   * {@link #newResultDecoderFor(TypeAdapter, int)} decoder. Decoded documents are queued by decoder
+   * as batches arrive and dequeued one by one as cursor is iterated, so only a single batch of
+   * documents is held in memory at a time.
+   * @param <T> document type
+   * @param object object returned by cursor
+   * @param adapter type adapter
+   * @return decoded document
+   */
+  public static <T> T unwrapResultObject(DBObject object, TypeAdapter<T> adapter) {
+    // Fongo ignores any decoders
+    if (object instanceof BasicDBObject) {
+      try {
+        return unmarshalDbObject(object, adapter);
+      } catch (IOException e) {
+        throw new RuntimeException("Failed to convert DBObject", e);
+      }
+    }
+
+    // Safe as long as caller will use same T for decoder and unwrap
+    @SuppressWarnings("unchecked") Queue<T> results = ((ResultDecoder<T>) object).results;
+    return results.remove();
+  }
+
   private static <T> ImmutableList<T> convertDBObject(List<DBObject> result, TypeAdapter<T> adapter)
       throws IOException {
     final List<T> list = Lists.newArrayListWithExpectedSize(result.size());
     final BSONEncoder encoder = new BasicBSONEncoder();
+    final BasicOutputBuffer buffer = new BasicOutputBuffer();
+    @Nullable BsonReader reader = null;
     for (DBObject obj : result) {
-      BsonReader parser = new BsonReader(BSON_FACTORY.createParser(encoder.encode(obj)));
-      list.add(adapter.read(parser));
+      buffer.truncateToPosition(0);
+      encoder.set(buffer);
+      encoder.putObject(obj);
+      encoder.done();
+      // parse encoded bytes in place, toByteArray() would copy every document
+      reader = resetReader(reader,
+          BSON_FACTORY.createParser(buffer.getInternalBuffer(), 0, buffer.getPosition()));
+      list.add(adapter.read(reader));
+    }
+    if (reader != null) {
+      reader.close();
     }
 
     return ImmutableList.copyOf(list);
   }
 
+  /**
+   * Reuses reader (and underlying {@link com.google.gson.stream.JsonReader} state) for a new
+   * parser, if reader was already created, closing previous parser.
+   */
+  private static BsonReader resetReader(@Nullable BsonReader reader, BsonParser parser) throws IOException {
+    if (reader == null) {
+      return new BsonReader(parser);
+    }
+    reader.getParser().close();
+    reader.reset(parser);
+    return reader;
+  }
+
   public static <T> DBDecoderFactory newResultDecoderFor(TypeAdapter<T> adaper, int expectedSize) {
-    return new ResultDecoder<>(adaper, new DefaultDBDecoder(), expectedSize);
+    return new ResultDecoder<>(adaper, new DefaultDBDecoder(), expectedSize, false);
+  }
+
+  /**
+   * Creates result decoder which, in addition to decoded documents, retains raw {@code _id} value of
+   * each document, so it could be obtained using {@link #unwrapResultId(DBObject)} while iterating
+   * cursor.
+   * @param <T> document type
+   * @param adaper type adapter
+   * @param expectedSize expected number of documents in a batch
+   * @return decoder factory
+   */
+  public static <T> DBDecoderFactory newResultDecoderWithIdsFor(TypeAdapter<T> adaper, int expectedSize) {
+    return new ResultDecoder<>(adaper, new DefaultDBDecoder(), expectedSize, true);
+  }
+
+  /**
+   * Unwraps raw {@code _id} value of a document returned by cursor iteration when cursor was
+   * configured with {@link #newResultDecoderWithIdsFor(TypeAdapter, int)} decoder. Should be called
+   * once per iterated object, before or after {@link #unwrapResultObject(DBObject, TypeAdapter)}.
+   * @param object object returned by cursor
+   * @return raw {@code _id} value, suitable to be used in a query
+   */
+  @Nullable
+  public static Object unwrapResultId(DBObject object) {
+    // Fongo ignores any decoders
+    if (object instanceof BasicDBObject) {
+      return object.get(ID_FIELD_NAME);
+    }
+    return ((ResultDecoder<?>) object).ids.remove();
+  }
+
+  /**
+   * @param decoderFactory decoder created by {@link #newResultDecoderFor(TypeAdapter, int)}
+   * @return total time spent decoding documents by the decoder
+   */
+  public static long decodingNanos(DBDecoderFactory decoderFactory) {
+    return decoderFactory instanceof ResultDecoder<?>
+        ? ((ResultDecoder<?>) decoderFactory).decodingNanos
+        : 0;
+  }
+
+  /**
+   * @param decoderFactory decoder created by {@link #newResultDecoderFor(TypeAdapter, int)}
+   * @return total size of BSON documents decoded by the decoder
+   */
+  public static long decodedBytes(DBDecoderFactory decoderFactory) {
+    return decoderFactory instanceof ResultDecoder<?>
+        ? ((ResultDecoder<?>) decoderFactory).decodedBytes
+        : 0;
   }
 
   /**
@@ -628,6 +733,16 @@ public final class BsonEncoding {
       limit = objectSize;
     }
 
+    /**
+     * Reads raw value of top level field of buffered object without advancing position.
+     * @param name field name
+     * @return field value or {@code null} if not present
+     */
+    @Nullable
+    Object readRawField(String name) {
+      return new LazyBSONObject(buffer, 0, new LazyBSONCallback()).get(name);
+    }
+
     @Override
     public int available() throws IOException {
       return limit - position;
@@ -652,34 +767,44 @@ public final class BsonEncoding {
 
   private static final class ResultDecoder<T> implements DBDecoderFactory, DBDecoder, DBObject {
 
-    final List<T> results;
+    final Queue<T> results;
+    final Queue<Object> ids;
+    private final boolean retainIds;
     private final TypeAdapter<T> adaper;
+    long decodingNanos;
+    long decodedBytes;
     private final DBDecoder decoder;
 
     @Nullable
-    private BsonReader parser;
+    private BsonReader reader;
 
     private final ObjectBufferInputStream bufferStream = new ObjectBufferInputStream(2012);
 
-    ResultDecoder(TypeAdapter<T> adaper, DBDecoder decoder, int expectedSize) {
+    ResultDecoder(TypeAdapter<T> adaper, DBDecoder decoder, int expectedSize, boolean retainIds) {
       this.adaper = adaper;
       this.decoder = decoder;
-      this.results = Lists.newArrayListWithExpectedSize(expectedSize);
+      this.results = new ArrayDeque<>(expectedSize);
+      // linked list permits null elements, in case there's no _id
+      this.ids = new LinkedList<>();
+      this.retainIds = retainIds;
     }
 
-    private BsonReader createParserIfNecessary() throws IOException {
-      if (parser != null) {
-        parser.close();
-      }
-      parser = new BsonReader(BSON_FACTORY.createParser(bufferStream));
-      return parser;
+    private BsonReader resetReaderForObject() throws IOException {
+      // Parser is cheap to create compared to reader, which holds parsing buffers
+      reader = resetReader(reader, BSON_FACTORY.createParser(bufferStream));
+      return reader;
     }
 
     @Override
     public DBObject decode(InputStream inputStream, DBCollection collection) throws IOException {
       bufferStream.resetObjectFrom(inputStream);
-      createParserIfNecessary();
-      T object = adaper.read(parser);
+      if (retainIds) {
+        ids.add(bufferStream.readRawField(ID_FIELD_NAME));
+      }
+      decodedBytes += bufferStream.limit;
+      long started = System.nanoTime();
+      T object = adaper.read(resetReaderForObject());
+      decodingNanos += System.nanoTime() - started;
       results.add(object);
       return this;
     }
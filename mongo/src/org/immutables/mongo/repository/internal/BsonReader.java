@@ -15,6 +15,7 @@
  */
 package org.immutables.mongo.repository.internal;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.google.gson.stream.JsonReader;
 import de.undercouch.bson4jackson.BsonParser;
 import de.undercouch.bson4jackson.types.ObjectId;
@@ -31,13 +32,19 @@ import org.immutables.gson.stream.JsonParserReader;
  */
 @NotThreadSafe
 public class BsonReader extends JsonParserReader {
-  private final BsonParser parser;
+  private BsonParser parser;
 
   BsonReader(BsonParser parser) {
     super(parser);
     this.parser = parser;
   }
 
+  @Override
+  protected void reset(JsonParser parser) {
+    super.reset(parser);
+    this.parser = (BsonParser) parser;
+  }
+
   public boolean peekedTimeInstant() throws IOException {
     peek();
     return parser.getEmbeddedObject() instanceof Date;
@@ -31,6 +31,7 @@ import com.mongodb.QueryOperators;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 import javax.annotation.Nullable;
@@ -332,4 +333,8 @@ public final class Support {
   public static Object bsonObjectAttribute(String name, Object value) {
     return new BasicDBObject(name, value);
   }
+
+  public static Object bsonObject(Map<String, Object> attributes) {
+    return new BasicDBObject(attributes);
+  }
 }
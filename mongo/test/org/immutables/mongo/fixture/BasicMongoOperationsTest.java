@@ -15,11 +15,21 @@
  */
 package org.immutables.mongo.fixture;
 
+import org.immutables.mongo.concurrent.FluentFuture;
+import org.immutables.mongo.repository.Repositories;
 import org.immutables.mongo.types.Binary;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.immutables.check.Checkers.check;
 import static org.junit.Assert.fail;
@@ -112,6 +122,94 @@ public class BasicMongoOperationsTest {
     check(repository.findAll().deleteAll().getUnchecked()).is(0);
   }
 
+  @Test
+  public void scanParallel() throws Exception {
+    List<Item> inserted = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      inserted.add(item().withId("id" + i));
+    }
+    repository.insert(inserted).getUnchecked();
+
+    final List<Item> scanned = Collections.synchronizedList(new ArrayList<Item>());
+    Repositories.Consumer<Item> consumer = new Repositories.Consumer<Item>() {
+      @Override
+      public void accept(Item document) {
+        scanned.add(document);
+      }
+    };
+
+    check(repository.findAll().scanParallel(3, consumer).getUnchecked()).is(10);
+    check(scanned).hasContentInAnyOrder(inserted);
+
+    scanned.clear();
+    check(repository.find(repository.criteria().id("id1")).scanParallel(4, consumer).getUnchecked()).is(1);
+    check(scanned).hasSize(1);
+  }
+
+  @Test
+  public void scanParallelFailure() throws Exception {
+    List<Item> inserted = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      inserted.add(item().withId("id" + i));
+    }
+    repository.insert(inserted).getUnchecked();
+
+    final AtomicInteger accepted = new AtomicInteger();
+    Repositories.Consumer<Item> consumer = new Repositories.Consumer<Item>() {
+      @Override
+      public void accept(Item document) {
+        if (document.id().equals("id50")) {
+          throw new IllegalStateException("failed " + document.id());
+        }
+        accepted.incrementAndGet();
+      }
+    };
+
+    try {
+      repository.findAll().scanParallel(4, consumer).getUnchecked();
+      fail();
+    } catch (RuntimeException ex) {
+      // all partitions are done when failure is reported, consumer is not invoked afterwards
+      int acceptedOnFailure = accepted.get();
+      Thread.sleep(100);
+      check(accepted.get()).is(acceptedOnFailure);
+    }
+  }
+
+  @Test
+  public void tail() throws Exception {
+    repository.insert(item().withId("id1")).getUnchecked();
+    repository.insert(item().withId("id2")).getUnchecked();
+
+    // tails run on dedicated executor, not holding threads of repository executor
+    ExecutorService tailExecutor = Executors.newSingleThreadExecutor();
+    try {
+      tailSubscriptions(tailExecutor);
+    } finally {
+      tailExecutor.shutdownNow();
+    }
+  }
+
+  private void tailSubscriptions(ExecutorService tailExecutor) throws Exception {
+    BlockingQueue<Item> queue = new ArrayBlockingQueue<>(1);
+    FluentFuture<Void> subscription = repository.findAll().tail(queue, tailExecutor);
+    check(queue.poll(5, TimeUnit.SECONDS).id()).is("id1");
+    check(queue.poll(5, TimeUnit.SECONDS).id()).is("id2");
+
+    // collection is not capped, so new documents are picked up by polling
+    repository.insert(item().withId("id3")).getUnchecked();
+    check(queue.poll(5, TimeUnit.SECONDS).id()).is("id3");
+    check(subscription.isDone()).is(false);
+    subscription.cancel(true);
+
+    repository.insert(item().withId("id4")).getUnchecked();
+
+    // single thread of executor is released by cancelled subscription
+    subscription = repository.find(repository.criteria().idGreaterThan("id3")).tail(queue, tailExecutor);
+    check(queue.poll(5, TimeUnit.SECONDS).id()).is("id4");
+    subscription.cancel(true);
+  }
+
   private Item findItem() {
     return repository.findById(item().id()).fetchFirst().getUnchecked().get();
   }
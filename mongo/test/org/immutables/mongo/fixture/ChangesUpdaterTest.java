@@ -0,0 +1,117 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.mongo.fixture;
+
+import com.google.common.base.Optional;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+import static org.junit.Assert.fail;
+
+public class ChangesUpdaterTest {
+
+  @Rule
+  public final MongoContext context = MongoContext.create();
+
+  private final TrackedRepository repository = new TrackedRepository(context.setup());
+
+  @Test
+  public void changedAttributes() {
+    ModifiableTracked tracked = ModifiableTracked.create()
+        .setId("t1")
+        .setName("a");
+
+    check(tracked.changedAttributes()).isOf("id", "name");
+
+    long mark = tracked.changeMark();
+    check(!tracked.changedSince(mark));
+
+    tracked.resetChanges().addTags("x");
+    check(tracked.changedSince(mark));
+    check(tracked.changedAttributes()).isOf("tags");
+
+    tracked.resetChanges().unsetName();
+    check(tracked.changedAttributes()).isOf("name");
+  }
+
+  /**
+   * Only changed attributes are written, so concurrent update of other attribute is preserved.
+   */
+  @Test
+  public void updateOnlyChanged() {
+    repository.insert(ImmutableTracked.builder()
+        .id("t1")
+        .name("a")
+        .count(1)
+        .note("n")
+        .addTags("x")
+        .putLabels("k1", "v1")
+        .putAliases("a1", "x")
+        .build())
+        .getUnchecked();
+
+    ModifiableTracked tracked = ModifiableTracked.create()
+        .from(findById("t1"))
+        .resetChanges();
+
+    check(tracked.changedAttributes()).isEmpty();
+
+    repository.update(repository.criteria().id("t1"))
+        .setName("b")
+        .updateFirst()
+        .getUnchecked();
+
+    tracked.setCount(2)
+        .setNote(Optional.<String>absent())
+        .putLabels("k2", "v2")
+        .putAliases("a1", "y");
+
+    check(tracked.changedAttributes()).isOf("count", "note", "labels", "aliases");
+
+    repository.update(repository.criteria().id("t1"))
+        .changes(tracked)
+        .updateFirst()
+        .getUnchecked();
+
+    Tracked updated = findById("t1");
+    check(updated.name()).is("b");
+    check(updated.count()).is(2);
+    check(!updated.note().isPresent());
+    check(updated.tags()).isOf("x");
+    check(updated.labels().keySet()).hasContentInAnyOrder("k1", "k2");
+    check(updated.aliases().get("a1")).isOf("x", "y");
+  }
+
+  @Test
+  public void unsetRequiredAttribute() {
+    ModifiableTracked tracked = ModifiableTracked.create()
+        .setId("t1")
+        .setName("a")
+        .resetChanges()
+        .unsetName();
+
+    try {
+      repository.update(repository.criteria().id("t1")).changes(tracked);
+      fail();
+    } catch (IllegalStateException ex) {
+      check(ex.getMessage()).contains("'name'");
+    }
+  }
+
+  private Tracked findById(String id) {
+    return repository.findById(id).fetchFirst().getUnchecked().get();
+  }
+}
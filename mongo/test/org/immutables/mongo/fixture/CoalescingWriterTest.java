@@ -0,0 +1,101 @@
+/*
+   Copyright 2017 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.mongo.fixture;
+
+import java.util.concurrent.TimeUnit;
+import org.immutables.mongo.concurrent.FluentFuture;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+public class CoalescingWriterTest {
+
+  @Rule
+  public final MongoContext context = MongoContext.create();
+
+  private final EntityRepository repository = new EntityRepository(context.setup());
+
+  @Test
+  public void coalescesUpsertsOnFlush() {
+    EntityRepository.CoalescingWriter writer = repository.coalescingWriter(1, TimeUnit.HOURS, 100);
+
+    FluentFuture<Integer> first = writer.upsert(ImmutableEntity.of("e1").withVersion(1));
+    FluentFuture<Integer> second = writer.upsert(ImmutableEntity.of("e1").withVersion(2));
+    writer.upsert(ImmutableEntity.of("e2"));
+
+    check(!first.isDone());
+    check(repository.findAll().fetchAll().getUnchecked()).isEmpty();
+
+    writer.flush().getUnchecked();
+
+    check(first.getUnchecked()).is(1);
+    check(second.getUnchecked()).is(1);
+    check(repository.findById("e1").fetchFirst().getUnchecked().get().version()).is(2);
+    check(repository.findAll().fetchAll().getUnchecked()).hasSize(2);
+  }
+
+  @Test
+  public void mergesUpdates() {
+    EntityRepository.CoalescingWriter writer = repository.coalescingWriter(1, TimeUnit.HOURS, 100);
+    EntityRepository.Criteria byId = repository.criteria().id("e1");
+
+    writer.upsert(ImmutableEntity.of("e1").withVersion(1));
+    writer.update(byId).incrementVersion(2).upsert();
+    writer.update(byId).incrementVersion(3).setValue("a").upsert();
+    FluentFuture<Integer> last = writer.update(byId).setValue("b").upsert();
+
+    writer.flush().getUnchecked();
+
+    check(last.getUnchecked()).is(1);
+    Entity entity = repository.findById("e1").fetchFirst().getUnchecked().get();
+    check(entity.version()).is(6);
+    check(entity.value()).isOf("b");
+  }
+
+  @Test
+  public void flushesWhenBatchIsFull() {
+    EntityRepository.CoalescingWriter writer = repository.coalescingWriter(1, TimeUnit.HOURS, 2);
+
+    writer.upsert(ImmutableEntity.of("e1"));
+    FluentFuture<Integer> second = writer.upsert(ImmutableEntity.of("e2"));
+
+    check(second.getUnchecked()).is(1);
+    check(repository.findAll().fetchAll().getUnchecked()).hasSize(2);
+  }
+
+  @Test
+  public void reschedulesAfterBatchIsFull() throws InterruptedException {
+    EntityRepository.CoalescingWriter writer = repository.coalescingWriter(1, TimeUnit.SECONDS, 2);
+
+    writer.upsert(ImmutableEntity.of("e1"));
+    writer.upsert(ImmutableEntity.of("e2")).getUnchecked();
+
+    Thread.sleep(700);
+    FluentFuture<Integer> third = writer.upsert(ImmutableEntity.of("e3"));
+    // flush scheduled for the first batch is cancelled and doesn't flush this one early
+    Thread.sleep(500);
+    check(!third.isDone());
+    check(third.getUnchecked()).is(1);
+  }
+
+  @Test
+  public void flushesAfterInterval() {
+    EntityRepository.CoalescingWriter writer = repository.coalescingWriter(10, TimeUnit.MILLISECONDS, 100);
+
+    check(writer.upsert(ImmutableEntity.of("e1")).getUnchecked()).is(1);
+    check(repository.findAll().fetchAll().getUnchecked()).hasSize(1);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+   Copyright 2017 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.mongo.fixture;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapterFactory;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.immutables.mongo.repository.OperationEvent;
+import org.immutables.mongo.repository.OperationListener;
+import org.immutables.mongo.repository.RepositorySetup;
+import org.junit.Rule;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+
+/**
+ * Checks that repository operations are reported to configured listener.
+ */
+public class OperationListenerTest {
+
+  @Rule
+  public final MongoContext context = MongoContext.create();
+
+  private final List<OperationEvent> events = new CopyOnWriteArrayList<>();
+
+  private final ItemRepository repository = new ItemRepository(RepositorySetup.builder()
+      .database(context.database())
+      .executor(MoreExecutors.newDirectExecutorService())
+      .gson(createGson())
+      .listener(new OperationListener() {
+        @Override
+        public void completed(OperationEvent event) {
+          events.add(event);
+        }
+      })
+      .slowQueryThreshold(1, TimeUnit.NANOSECONDS)
+      .build());
+
+  @Test
+  public void reportsOperations() {
+    repository.insert(ImmutableItem.of("1")).getUnchecked();
+    repository.upsert(ImmutableItem.of("2")).getUnchecked();
+    check(repository.findById("1").fetchAll().getUnchecked()).hasSize(1);
+    check(repository.findAll().deleteAll().getUnchecked()).is(2);
+
+    check(events).hasSize(4);
+
+    OperationEvent insert = events.get(0);
+    check(insert.kind()).is(OperationEvent.Kind.INSERT);
+    check(insert.collectionName()).is("item");
+    check(insert.documentCount()).is(1);
+    check(insert.criteria()).isAbsent();
+
+    check(events.get(1).kind()).is(OperationEvent.Kind.UPSERT);
+
+    OperationEvent fetch = events.get(2);
+    check(fetch.kind()).is(OperationEvent.Kind.FETCH);
+    check(fetch.documentCount()).is(1);
+    check(fetch.criteria().get()).contains("_id");
+    check(fetch.isSlow());
+    check(fetch.failure()).isAbsent();
+
+    OperationEvent delete = events.get(3);
+    check(delete.kind()).is(OperationEvent.Kind.DELETE);
+    check(delete.documentCount()).is(2);
+  }
+
+  private static com.google.gson.Gson createGson() {
+    GsonBuilder gson = new GsonBuilder();
+    for (TypeAdapterFactory factory : ServiceLoader.load(TypeAdapterFactory.class)) {
+      gson.registerTypeAdapterFactory(factory);
+    }
+    return gson.create();
+  }
+}
@@ -0,0 +1,46 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.mongo.fixture;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ListMultimap;
+import java.util.List;
+import java.util.Map;
+import org.immutables.gson.Gson;
+import org.immutables.mongo.Mongo;
+import org.immutables.value.Value;
+
+@Mongo.Repository
+@Value.Immutable
+@Value.Modifiable
+@Value.Style(modifiableChangeTracking = true)
+@Gson.TypeAdapters
+public interface Tracked {
+  @Mongo.Id
+  String id();
+
+  String name();
+
+  int count();
+
+  Optional<String> note();
+
+  List<String> tags();
+
+  Map<String, String> labels();
+
+  ListMultimap<String, String> aliases();
+}
@@ -0,0 +1,138 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.fixture.style;
+
+import com.google.common.collect.Multimap;
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.immutables.value.Value;
+
+public interface BinaryCodecs {
+  @Value.Immutable
+  @Value.Style(binaryCodec = true)
+  interface Scalars {
+    boolean bool();
+
+    byte b();
+
+    short s();
+
+    char c();
+
+    int i();
+
+    long l();
+
+    float f();
+
+    double d();
+
+    Integer boxed();
+
+    String string();
+
+    RetentionPolicy policy();
+  }
+
+  @Value.Immutable
+  @Value.Style(binaryCodec = true)
+  interface Containers {
+    @Nullable
+    String note();
+
+    Optional<String> label();
+
+    OptionalInt count();
+
+    com.google.common.base.Optional<RetentionPolicy> policy();
+
+    List<Integer> numbers();
+
+    Set<RetentionPolicy> policies();
+
+    Map<String, Long> totals();
+
+    Multimap<Character, String> words();
+
+    Optional<Scalars> scalars();
+
+    Map<String, Scalars> named();
+
+    List<Containers> children();
+
+    @Value.Default
+    default int priority() {
+      return 1;
+    }
+  }
+
+  /** First version of an evolving type, see {@link Version2}. */
+  @Value.Immutable
+  @Value.Style(binaryCodec = true)
+  interface Version1 {
+    int id();
+
+    @Value.Default
+    default String name() {
+      return "";
+    }
+  }
+
+  @Value.Immutable
+  @Value.Style(binaryCodec = true)
+  interface Version2 {
+    int id();
+
+    @Value.Default
+    default String name() {
+      return "";
+    }
+
+    List<Scalars> scalars();
+
+    Optional<Double> ratio();
+  }
+
+  /** Type with pinned field numbers, see {@link PinnedReordered}. */
+  @Value.Immutable
+  @Value.Style(binaryCodec = true)
+  interface Pinned {
+    @Value.BinaryTag(1)
+    int id();
+
+    @Value.BinaryTag(2)
+    String name();
+
+    @Value.BinaryTag(3)
+    Optional<String> label();
+  }
+
+  /** Later version of {@link Pinned} with attributes reordered and {@code name} removed. */
+  @Value.Immutable
+  @Value.Style(binaryCodec = true)
+  interface PinnedReordered {
+    @Value.BinaryTag(3)
+    Optional<String> label();
+
+    @Value.BinaryTag(1)
+    int id();
+  }
+}
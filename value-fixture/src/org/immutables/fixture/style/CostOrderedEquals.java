@@ -0,0 +1,57 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.fixture.style;
+
+import java.lang.annotation.RetentionPolicy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.immutables.value.Value;
+
+/**
+ * Attributes are declared from most to least expensive to compare, so with
+ * {@code costOrderedEquals} the generated {@code equals} checks them in reverse.
+ */
+@Value.Immutable
+@Value.Style(costOrderedEquals = true)
+public interface CostOrderedEquals {
+  List<Probe> probes();
+
+  Probe probe();
+
+  String name();
+
+  Long boxed();
+
+  RetentionPolicy policy();
+
+  int count();
+
+  /** Counts how many times it was compared for equality. */
+  final class Probe {
+    static final AtomicInteger comparisons = new AtomicInteger();
+
+    @Override
+    public boolean equals(Object obj) {
+      comparisons.incrementAndGet();
+      return obj instanceof Probe;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+  }
+}
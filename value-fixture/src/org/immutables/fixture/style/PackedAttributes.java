@@ -0,0 +1,41 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.fixture.style;
+
+import java.lang.annotation.RetentionPolicy;
+import org.immutables.value.Value;
+
+@Value.Immutable
+@Value.Style(packedAttributes = true)
+public interface PackedAttributes {
+  @Value.Parameter
+  boolean enabled();
+
+  @Value.Parameter
+  RetentionPolicy retention();
+
+  @Value.Parameter
+  String name();
+
+  boolean visible();
+
+  boolean required();
+
+  @Value.Default
+  default boolean defaulted() {
+    return true;
+  }
+}
@@ -532,4 +532,24 @@ public class ValuesTest {
 
     check(m).hasToString("RedactedMaskJdkOnlyOpt{code=????}");
   }
+
+  @Test
+  public void lazyhash() {
+    ImmutableLazyHashed a = ImmutableLazyHashed.of("a", Arrays.asList(1, 2));
+    ImmutableLazyHashed b = ImmutableLazyHashed.of("a", Arrays.asList(1, 2));
+    ImmutableLazyHashed c = ImmutableLazyHashed.of("c", Arrays.asList(1, 2));
+
+    check(a).is(b);
+    check(a.hashCode()).is(b.hashCode());
+    check(a.hashCode()).is(a.hashCode());
+    check(a).not(c);
+    c.hashCode();
+    check(a).not(c);
+
+    int before = LazyHashed.CustomHashed.computations.get();
+    ImmutableCustomHashed custom = ImmutableCustomHashed.of(42);
+    check(custom.hashCode()).is(42);
+    check(custom.hashCode()).is(42);
+    check(LazyHashed.CustomHashed.computations.get() - before).is(1);
+  }
 }
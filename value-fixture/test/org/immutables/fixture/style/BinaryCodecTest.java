@@ -0,0 +1,179 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.fixture.style;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import org.junit.Test;
+import static org.immutables.check.Checkers.check;
+import static org.junit.Assert.fail;
+
+public class BinaryCodecTest {
+  private final ImmutableScalars scalars = ImmutableScalars.builder()
+      .bool(true)
+      .b((byte) -3)
+      .s(Short.MIN_VALUE)
+      .c('\u044f')
+      .i(-1)
+      .l(Long.MAX_VALUE)
+      .f(1.5f)
+      .d(-0.25)
+      .boxed(300)
+      .string("\u0441\u0442\u0440\u043e\u043a\u0430")
+      .policy(RetentionPolicy.SOURCE)
+      .build();
+
+  private final ImmutableContainers containers = ImmutableContainers.builder()
+      .note("note")
+      .count(42)
+      .policy(RetentionPolicy.CLASS)
+      .addNumbers(1, -2, 3)
+      .addPolicies(RetentionPolicy.RUNTIME, RetentionPolicy.SOURCE)
+      .putTotals("a", 1L)
+      .putTotals("b", -1L)
+      .putWords('a', "apple")
+      .putWords('a', "avocado")
+      .scalars(scalars)
+      .putNamed("x", scalars)
+      .addChildren(ImmutableContainers.builder()
+          .label("child")
+          .priority(7)
+          .build())
+      .build();
+
+  @Test
+  public void scalarsRoundTrip() throws IOException {
+    byte[] bytes = toBytes(scalars);
+    check(ImmutableScalars.BinaryCodec.read(input(bytes))).is(scalars);
+
+    ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+    ImmutableScalars.BinaryCodec.write(scalars, buffer);
+    check(buffer.position()).is(bytes.length);
+    check(Arrays.equals(buffer.array(), bytes));
+
+    buffer.flip();
+    check(ImmutableScalars.BinaryCodec.read(buffer)).is(scalars);
+    check(buffer.remaining()).is(0);
+  }
+
+  @Test
+  public void containersRoundTrip() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ImmutableContainers.BinaryCodec.write(containers, new DataOutputStream(bytes));
+    check(ImmutableContainers.BinaryCodec.read(input(bytes.toByteArray()))).is(containers);
+
+    ImmutableContainers empty = ImmutableContainers.builder().build();
+    ByteBuffer buffer = ByteBuffer.allocate(16);
+    ImmutableContainers.BinaryCodec.write(empty, buffer);
+    // only default attribute and end of fields
+    check(buffer.position()).is(3);
+    buffer.flip();
+    check(ImmutableContainers.BinaryCodec.read(buffer)).is(empty);
+  }
+
+  @Test
+  public void byteOrderOfBufferIsIgnored() {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(256).order(ByteOrder.LITTLE_ENDIAN);
+    ImmutableContainers.BinaryCodec.write(containers, buffer);
+    buffer.flip();
+    check(ImmutableContainers.BinaryCodec.read(buffer.order(ByteOrder.BIG_ENDIAN))).is(containers);
+  }
+
+  @Test
+  public void newerReaderUsesDefaultsForMissingFields() throws IOException {
+    ImmutableVersion1 version1 = ImmutableVersion1.builder()
+        .id(1)
+        .name("one")
+        .build();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ImmutableVersion1.BinaryCodec.write(version1, new DataOutputStream(bytes));
+
+    ImmutableVersion2 version2 = ImmutableVersion2.BinaryCodec.read(input(bytes.toByteArray()));
+    check(version2.id()).is(1);
+    check(version2.name()).is("one");
+    check(version2.scalars()).isEmpty();
+    check(!version2.ratio().isPresent());
+  }
+
+  @Test
+  public void olderReaderSkipsUnknownFields() throws IOException {
+    ImmutableVersion2 version2 = ImmutableVersion2.builder()
+        .id(2)
+        .addScalars(scalars, scalars)
+        .ratio(0.5)
+        .build();
+
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    ImmutableVersion2.BinaryCodec.write(version2, buffer);
+    buffer.flip();
+
+    ImmutableVersion1 version1 = ImmutableVersion1.BinaryCodec.read(buffer);
+    check(version1.id()).is(2);
+    check(version1.name()).is("");
+    check(buffer.remaining()).is(0);
+  }
+
+  @Test
+  public void pinnedNumbersSurviveReordering() {
+    ImmutablePinned pinned = ImmutablePinned.builder()
+        .id(3)
+        .name("three")
+        .label("label")
+        .build();
+
+    ByteBuffer buffer = ByteBuffer.allocate(64);
+    ImmutablePinned.BinaryCodec.write(pinned, buffer);
+    buffer.flip();
+
+    ImmutablePinnedReordered reordered = ImmutablePinnedReordered.BinaryCodec.read(buffer);
+    check(reordered.id()).is(3);
+    check(reordered.label().get()).is("label");
+  }
+
+  @Test
+  public void entryWithoutKeyIsRejected() {
+    // field 7 (totals) as group with only the value field, then end of group and of fields
+    byte[] bytes = {7 << 3 | 3, 2 << 3, 2, 0, 0};
+    try {
+      ImmutableContainers.BinaryCodec.read(ByteBuffer.wrap(bytes));
+      fail();
+    } catch (IllegalArgumentException ex) {
+    }
+    try {
+      ImmutableContainers.BinaryCodec.read(input(bytes));
+      fail();
+    } catch (IOException ex) {
+    }
+  }
+
+  private static byte[] toBytes(ImmutableScalars value) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ImmutableScalars.BinaryCodec.write(value, new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  private static DataInputStream input(byte[] bytes) {
+    return new DataInputStream(new ByteArrayInputStream(bytes));
+  }
+}
@@ -15,11 +15,16 @@
  */
 package org.immutables.fixture.style;
 
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.junit.Test;
 import static org.immutables.check.Checkers.check;
+import static org.junit.Assert.fail;
 
 public class StyleTest {
   @Test
@@ -47,4 +52,125 @@ public class StyleTest {
     }
     check(c).isNull();
   }
+
+  @Test
+  public void costOrderedEquals() {
+    CostOrderedEquals.Probe probe = new CostOrderedEquals.Probe();
+    ImmutableCostOrderedEquals a = ImmutableCostOrderedEquals.builder()
+        .addProbes(probe, probe)
+        .probe(probe)
+        .name("a")
+        .boxed(1L)
+        .policy(RetentionPolicy.SOURCE)
+        .count(1)
+        .build();
+
+    int before = CostOrderedEquals.Probe.comparisons.get();
+    check(a).not(a.withCount(2));
+    check(a).not(a.withPolicy(RetentionPolicy.CLASS));
+    check(a).not(a.withBoxed(2L));
+    check(a).not(a.withName("b"));
+    check(CostOrderedEquals.Probe.comparisons.get() - before).is(0);
+
+    check(a).is(ImmutableCostOrderedEquals.copyOf(a).withProbe(new CostOrderedEquals.Probe()));
+    check(CostOrderedEquals.Probe.comparisons.get() - before).not(0);
+  }
+
+  @Test
+  public void transferBuilderCollections() {
+    ImmutableTransferBuilderCollections.Builder builder = ImmutableTransferBuilderCollections.builder()
+        .addNames("a", "b")
+        .addIds(1);
+
+    ImmutableTransferBuilderCollections value = builder.build();
+    check(value.names()).isOf("a", "b");
+    check(value.ids()).isOf(1);
+
+    builder.addNames("c");
+    check(value.names()).isOf("a", "b");
+
+    try {
+      builder.build();
+      check(false);
+    } catch (IllegalStateException ex) {
+    }
+  }
+
+  @Test
+  public void packedAttributes() throws Exception {
+    ImmutablePackedAttributes a = ImmutablePackedAttributes.builder()
+        .enabled(true)
+        .retention(RetentionPolicy.CLASS)
+        .visible(false)
+        .required(true)
+        .name("a")
+        .build();
+
+    check(a.enabled());
+    check(a.retention()).is(RetentionPolicy.CLASS);
+    check(!a.visible());
+    check(a.required());
+    check(a.defaulted());
+
+    ImmutablePackedAttributes b = a.withRetention(RetentionPolicy.RUNTIME).withVisible(true);
+    check(b.retention()).is(RetentionPolicy.RUNTIME);
+    check(b.visible());
+    check(b.enabled());
+    check(b.required());
+    check(b.name()).is("a");
+    check(a.withEnabled(true)).same(a);
+
+    ImmutablePackedAttributes c = ImmutablePackedAttributes.of(true, RetentionPolicy.CLASS, "a")
+        .withRequired(true);
+    check(c).is(a);
+    check(c.hashCode()).is(a.hashCode());
+    check(b).not(a);
+    check(a.toString()).is(
+        "PackedAttributes{enabled=true, retention=CLASS, name=a, visible=false, required=true, defaulted=true}");
+
+    int booleanFields = 0;
+    int longFields = 0;
+    for (Field f : ImmutablePackedAttributes.class.getDeclaredFields()) {
+      if (!Modifier.isStatic(f.getModifiers())) {
+        if (f.getType() == boolean.class) booleanFields++;
+        if (f.getType() == long.class) longFields++;
+      }
+    }
+    // only defaulted attribute is stored in its own field
+    check(booleanFields).is(1);
+    check(longFields).is(1);
+  }
+
+  @Test
+  public void packedEnumOverflow() throws Exception {
+    Method packOrdinal = ImmutablePackedAttributes.class.getDeclaredMethod(
+        "packOrdinal", Enum.class, int.class, long.class);
+    packOrdinal.setAccessible(true);
+
+    check(packOrdinal.invoke(null, RetentionPolicy.RUNTIME, 4, 0x3L)).is(32L);
+    try {
+      // stands for a constant added to enum after generation, ordinal doesn't fit 2 bits
+      packOrdinal.invoke(null, TimeUnit.DAYS, 4, 0x3L);
+      fail();
+    } catch (InvocationTargetException ex) {
+      check(ex.getCause()).isA(IllegalStateException.class);
+    }
+  }
+
+  @Test
+  public void appendToString() {
+    ImmutableNode node = ImmutableNode.builder()
+        .name("n")
+        .secret("s")
+        .addLeaves(ImmutableLeaf.of(1), ImmutableLeaf.of(2))
+        .build();
+
+    check(node.toString()).is("Node{name=n, secret=****, leaves=[Leaf{value=1}, Leaf{value=2}]}");
+    check(node.withFirst(ImmutableLeaf.of(0)).toString())
+        .is("Node{first=Leaf{value=0}, name=n, secret=****, leaves=[Leaf{value=1}, Leaf{value=2}]}");
+
+    StringBuilder builder = new StringBuilder("prefix:");
+    check(node.withLeaves().appendTo(builder)).same(builder);
+    check(builder.toString()).is("prefix:Node{name=n, secret=****, leaves=[]}");
+  }
 }
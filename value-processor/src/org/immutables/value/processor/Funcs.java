@@ -15,6 +15,7 @@
  */
 package org.immutables.value.processor;
 
+import org.immutables.value.processor.meta.SortAttribute;
 import org.immutables.value.processor.meta.ValueType;
 import org.immutables.generator.Generator;
 
@@ -22,4 +23,7 @@ import org.immutables.generator.Generator;
 abstract class Funcs extends ValuesTemplate {
   @Generator.Typedef
   ValueType.FuncData Func;
+
+  @Generator.Typedef
+  SortAttribute SortAttribute;
 }
@@ -87,6 +87,26 @@ abstract class Gsons extends ValuesTemplate {
     return builder.build();
   }
 
+  /**
+   * Suffix of {@code JsonParserReader.next*Array} method which reads primitive array in bulk or
+   * empty string if there is no such method for the type.
+   */
+  public final Function<String, String> bulkArrayRead = new Function<String, String>() {
+    @Override
+    public String apply(String type) {
+      switch (type) {
+      case "double[]":
+        return "Double";
+      case "long[]":
+        return "Long";
+      case "int[]":
+        return "Int";
+      default:
+        return "";
+      }
+    }
+  };
+
   @Generator.Typedef
   Multimap<Character, Map.Entry<String, ValueAttribute>> Mm;
 
@@ -28,6 +28,8 @@ abstract class Immutables extends ValuesTemplate {
   final Renderers rr = new Generator_Renderers();
   // obviously for android parcelable support
   final Parcelables parcelables = new Generator_Parcelables();
+  // compact binary codec nested class
+  final Binaries binaries = new Generator_Binaries();
   
   @Nullable
   String topLevelSimple;
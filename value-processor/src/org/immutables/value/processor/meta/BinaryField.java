@@ -0,0 +1,209 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.value.processor.meta;
+
+import com.google.common.collect.ImmutableMap;
+import javax.annotation.Nullable;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+
+/**
+ * Describes how an attribute is written by the generated binary codec. Each field is prefixed by
+ * a varint tag combining field number (set by {@code @Value.BinaryTag} or attribute position among
+ * settable attributes, starting from 1) and wire type, so readers can skip fields they don't know.
+ */
+public final class BinaryField {
+  /** Largest field number which leaves room for wire type in a tag. */
+  static final int MAX_NUMBER = Integer.MAX_VALUE >>> 3;
+
+  static final int WIRE_VARINT = 0;
+  static final int WIRE_FIXED64 = 1;
+  static final int WIRE_BYTES = 2;
+  static final int WIRE_GROUP = 3;
+  static final int WIRE_FIXED32 = 5;
+
+  public enum Form {
+    /** Mandatory attribute, always written. */
+    SINGLE,
+    /** Nullable attribute, written only if not {@code null}. */
+    NULLABLE,
+    /** Optional attribute, written only if present. */
+    OPTIONAL,
+    /** Collection attribute, written as a field per element. */
+    REPEATED,
+    /** Map or multimap attribute, written as a group with key and value per entry. */
+    ENTRIES
+  }
+
+  public enum Kind {
+    BOOLEAN(WIRE_VARINT),
+    BYTE(WIRE_VARINT),
+    SHORT(WIRE_VARINT),
+    CHAR(WIRE_VARINT),
+    INT(WIRE_VARINT),
+    LONG(WIRE_VARINT),
+    FLOAT(WIRE_FIXED32),
+    DOUBLE(WIRE_FIXED64),
+    STRING(WIRE_BYTES),
+    ENUM(WIRE_BYTES),
+    VALUE(WIRE_GROUP);
+
+    final int wireType;
+
+    Kind(int wireType) {
+      this.wireType = wireType;
+    }
+  }
+
+  private static final ImmutableMap<String, Kind> KIND_BY_TYPE = ImmutableMap.<String, Kind>builder()
+      .put("boolean", Kind.BOOLEAN)
+      .put(Boolean.class.getName(), Kind.BOOLEAN)
+      .put("byte", Kind.BYTE)
+      .put(Byte.class.getName(), Kind.BYTE)
+      .put("short", Kind.SHORT)
+      .put(Short.class.getName(), Kind.SHORT)
+      .put("char", Kind.CHAR)
+      .put(Character.class.getName(), Kind.CHAR)
+      .put("int", Kind.INT)
+      .put(Integer.class.getName(), Kind.INT)
+      .put("long", Kind.LONG)
+      .put(Long.class.getName(), Kind.LONG)
+      .put("float", Kind.FLOAT)
+      .put(Float.class.getName(), Kind.FLOAT)
+      .put("double", Kind.DOUBLE)
+      .put(Double.class.getName(), Kind.DOUBLE)
+      .put(String.class.getName(), Kind.STRING)
+      .build();
+
+  /** Element, key or value of a binary field. */
+  public static final class Scalar {
+    public final Kind kind;
+    /** Qualified type name, used to decode enum constants. */
+    public final String type;
+    /** Value type which has its own codec, if {@link #kind} is {@link Kind#VALUE}. */
+    public final @Nullable ValueType value;
+
+    Scalar(Kind kind, String type, @Nullable ValueType value) {
+      this.kind = kind;
+      this.type = type;
+      this.value = value;
+    }
+
+    public int wireType() {
+      return kind.wireType;
+    }
+
+    public String getCodec() {
+      return value != null ? value.typeImmutable().absoluteRaw() + ".BinaryCodec" : "";
+    }
+
+    @Nullable
+    static Scalar of(ValueAttribute attribute, String typeName, @Nullable TypeElement element) {
+      String type = rawType(typeName);
+      @Nullable Kind kind = KIND_BY_TYPE.get(type);
+      if (kind != null) {
+        return new Scalar(kind, type, null);
+      }
+      if (element != null && element.getKind() == ElementKind.ENUM) {
+        return new Scalar(Kind.ENUM, type, null);
+      }
+      @Nullable ValueType value = attribute.findBinaryCodecValueType(element);
+      if (value != null) {
+        return new Scalar(Kind.VALUE, type, value);
+      }
+      return null;
+    }
+
+    private static String rawType(String typeName) {
+      String type = typeName;
+      int endOfTypeAnnotations = type.lastIndexOf(' ');
+      if (endOfTypeAnnotations > 0) {
+        type = type.substring(endOfTypeAnnotations + 1);
+      }
+      return type;
+    }
+  }
+
+  public final ValueAttribute attribute;
+  public final Form form;
+  public final int number;
+  /** Key of map entries, {@code null} for other forms. */
+  public final @Nullable Scalar key;
+  /** Attribute value, element of collection or optional, or value of map entries. */
+  public final Scalar element;
+
+  BinaryField(ValueAttribute attribute, Form form, int number, @Nullable Scalar key, Scalar element) {
+    this.attribute = attribute;
+    this.form = form;
+    this.number = number;
+    this.key = key;
+    this.element = element;
+  }
+
+  public int getTag() {
+    return number << 3 | (form == Form.ENTRIES ? WIRE_GROUP : element.wireType());
+  }
+
+  /** Tag of the entry key within map entry group. */
+  public int getKeyTag() {
+    return 1 << 3 | (key != null ? key.wireType() : 0);
+  }
+
+  /** Tag of the entry value within map entry group. */
+  public int getValueTag() {
+    return 2 << 3 | element.wireType();
+  }
+
+  /**
+   * @param attribute attribute
+   * @param number field number
+   * @return binary field or {@code null} if attribute type is not supported by the binary codec
+   */
+  @Nullable
+  static BinaryField of(ValueAttribute attribute, int number) {
+    if (attribute.isEncoding() || attribute.isArrayType()) {
+      return null;
+    }
+    if (attribute.isMapType() || attribute.isMultimapType()) {
+      @Nullable Scalar key = Scalar.of(attribute, attribute.firstTypeParameter(), attribute.containedTypeElement);
+      @Nullable Scalar value = Scalar.of(attribute, attribute.secondTypeParameter(), attribute.containedSecondaryTypeElement());
+      return key != null && value != null
+          ? new BinaryField(attribute, Form.ENTRIES, number, key, value)
+          : null;
+    }
+    if (attribute.isCollectionType()) {
+      return of(attribute, Form.REPEATED, number, attribute.getWrappedElementType());
+    }
+    if (attribute.isJdkSpecializedOptional()) {
+      return of(attribute, Form.OPTIONAL, number, attribute.getElementType());
+    }
+    if (attribute.isJdkOptional() || attribute.isGuavaOptional()) {
+      return of(attribute, Form.OPTIONAL, number, attribute.getWrappedElementType());
+    }
+    if (attribute.isOptionalType() || attribute.isContainerType()) {
+      return null;
+    }
+    return of(attribute, attribute.isNullable() ? Form.NULLABLE : Form.SINGLE, number, attribute.getType());
+  }
+
+  @Nullable
+  private static BinaryField of(ValueAttribute attribute, Form form, int number, String typeName) {
+    @Nullable Scalar element = Scalar.of(attribute, typeName, attribute.containedTypeElement);
+    return element != null
+        ? new BinaryField(attribute, form, number, null, element)
+        : null;
+  }
+}
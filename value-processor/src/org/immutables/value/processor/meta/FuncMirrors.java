@@ -25,4 +25,13 @@ public final class FuncMirrors {
 
   @Mirror.Annotation("org.immutables.func.Functional.BindParameters")
   public @interface BindParams {}
+
+  @Mirror.Annotation("org.immutables.func.Functional.OrderBy")
+  public @interface OrderBy {
+    int value() default 0;
+
+    boolean descending() default false;
+
+    boolean nullsFirst() default false;
+  }
 }
@@ -29,6 +29,10 @@ public final class GsonMirrors {
     boolean emptyAsNulls() default false;
 
     boolean nullAsDefault() default false;
+
+    boolean lazyAdapters() default false;
+
+    boolean bypassBuilder() default false;
   }
 
   @Mirror.Annotation("org.immutables.gson.Gson.ExpectedSubtypes")
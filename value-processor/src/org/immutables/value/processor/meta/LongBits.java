@@ -117,12 +117,21 @@ public final class LongBits implements Function<Iterable<? extends Object>, Long
   public static final class BitPosition {
     public final int index;
     public final int bit;
+    public final int width;
+    /** Unshifted mask of {@link #width} bits. */
+    public final long valueMask;
     public final long mask;
 
     BitPosition(int index, int bit) {
+      this(index, bit, 1);
+    }
+
+    BitPosition(int index, int bit, int width) {
       this.index = index;
       this.bit = bit;
-      this.mask = 1L << bit;
+      this.width = width;
+      this.valueMask = width == BITS_IN_LONG ? -1L : (1L << width) - 1;
+      this.mask = valueMask << bit;
     }
   }
 }
@@ -0,0 +1,85 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.value.processor.meta;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.primitives.Longs;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import org.immutables.value.processor.meta.LongBits.BitPosition;
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Allocates bits in {@code long} words to store packed attributes. Bits of an attribute are
+ * never split between words, attributes are placed first-fit in declaration order.
+ */
+public final class PackedAttributes {
+  private static final int BITS_IN_LONG = Longs.BYTES * Byte.SIZE;
+
+  private final IdentityHashMap<ValueAttribute, BitPosition> positions = Maps.newIdentityHashMap();
+  private final ImmutableList<Word> words;
+
+  PackedAttributes(Iterable<ValueAttribute> attributes) {
+    List<List<ValueAttribute>> wordAttributes = new ArrayList<>();
+    List<Integer> occupied = new ArrayList<>();
+
+    for (ValueAttribute a : attributes) {
+      int width = a.getPackedWidth();
+      checkArgument(width > 0 && width <= BITS_IN_LONG, width);
+
+      int index = 0;
+      while (index < occupied.size() && occupied.get(index) + width > BITS_IN_LONG) {
+        index++;
+      }
+      if (index == occupied.size()) {
+        occupied.add(0);
+        wordAttributes.add(new ArrayList<ValueAttribute>());
+      }
+      int bit = occupied.get(index);
+      occupied.set(index, bit + width);
+      wordAttributes.get(index).add(a);
+      positions.put(a, new BitPosition(index, bit, width));
+    }
+
+    ImmutableList.Builder<Word> builder = ImmutableList.builder();
+    for (int i = 0; i < wordAttributes.size(); i++) {
+      builder.add(new Word(i, wordAttributes.get(i)));
+    }
+    this.words = builder.build();
+  }
+
+  public List<Word> words() {
+    return words;
+  }
+
+  BitPosition positionOf(ValueAttribute attribute) {
+    BitPosition position = positions.get(attribute);
+    checkArgument(position != null, "Attribute %s is not packed", attribute.name());
+    return position;
+  }
+
+  public static final class Word {
+    public final int index;
+    public final List<ValueAttribute> attributes;
+
+    Word(int index, List<ValueAttribute> attributes) {
+      this.index = index;
+      this.attributes = ImmutableList.copyOf(attributes);
+    }
+  }
+}
@@ -1712,6 +1712,7 @@ public class Proto {
           input.builder(),
           input.copy(),
           input.intern(),
+          input.lazyhash(),
           input.prehash(),
           input.singleton())
           .withIsDefault(input.getAnnotationMirror().getElementValues().isEmpty());
@@ -1795,7 +1796,13 @@ public class Proto {
           input.addBuilder(),
           input.addAllBuilder(),
           input.getBuilders(),
-          input.nullableAnnotation());
+          input.nullableAnnotation(),
+          input.costOrderedEquals(),
+          input.transferBuilderCollections(),
+          input.packedAttributes(),
+          input.appendToString(),
+          input.binaryCodec(),
+          input.modifiableChangeTracking());
     }
   }
 
@@ -0,0 +1,283 @@
+/*
+   Copyright 2016 Immutables Authors and Contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+package org.immutables.value.processor.meta;
+
+import com.google.common.collect.ImmutableMap;
+import javax.annotation.Nullable;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Describes how an attribute annotated with {@code @Functional.OrderBy} takes part in the
+ * generated comparator and sort keys.
+ */
+public final class SortAttribute {
+  /** Long sort key uses at most that many bits so that keys compare correctly as signed longs. */
+  static final int MAX_LONG_KEY_BITS = Long.SIZE - 1;
+
+  public enum Form {
+    /** Mandatory attribute. */
+    SINGLE,
+    /** Nullable attribute, {@code null} is ordered according to {@code nullsFirst}. */
+    NULLABLE,
+    /** Optional attribute, absent value is ordered according to {@code nullsFirst}. */
+    OPTIONAL,
+    /** Collection attribute compared lexicographically by its elements. */
+    ITERABLE
+  }
+
+  public enum Kind {
+    BOOLEAN(1),
+    BYTE(Byte.SIZE),
+    SHORT(Short.SIZE),
+    CHAR(Character.SIZE),
+    INT(Integer.SIZE),
+    LONG(Long.SIZE),
+    FLOAT(Float.SIZE),
+    DOUBLE(Double.SIZE),
+    ENUM(0),
+    STRING(0),
+    COMPARABLE(0);
+
+    final int bits;
+
+    Kind(int bits) {
+      this.bits = bits;
+    }
+
+    public boolean isPrimitive() {
+      return bits > 0;
+    }
+  }
+
+  private static final ImmutableMap<String, Kind> KIND_BY_TYPE = ImmutableMap.<String, Kind>builder()
+      .put("boolean", Kind.BOOLEAN)
+      .put(Boolean.class.getName(), Kind.BOOLEAN)
+      .put("byte", Kind.BYTE)
+      .put(Byte.class.getName(), Kind.BYTE)
+      .put("short", Kind.SHORT)
+      .put(Short.class.getName(), Kind.SHORT)
+      .put("char", Kind.CHAR)
+      .put(Character.class.getName(), Kind.CHAR)
+      .put("int", Kind.INT)
+      .put(Integer.class.getName(), Kind.INT)
+      .put("long", Kind.LONG)
+      .put(Long.class.getName(), Kind.LONG)
+      .put("float", Kind.FLOAT)
+      .put(Float.class.getName(), Kind.FLOAT)
+      .put("double", Kind.DOUBLE)
+      .put(Double.class.getName(), Kind.DOUBLE)
+      .put(String.class.getName(), Kind.STRING)
+      .build();
+
+  public final ValueAttribute attribute;
+  public final Form form;
+  public final Kind kind;
+  /** Type of compared value, element type for optional and collection attributes. */
+  public final String type;
+  public final int precedence;
+  public final boolean descending;
+  public final boolean nullsFirst;
+  private final int enumConstants;
+
+  private SortAttribute(
+      ValueAttribute attribute,
+      Form form,
+      Kind kind,
+      String type,
+      int enumConstants,
+      int precedence,
+      boolean descending,
+      boolean nullsFirst) {
+    this.attribute = attribute;
+    this.form = form;
+    this.kind = kind;
+    this.type = type;
+    this.enumConstants = enumConstants;
+    this.precedence = precedence;
+    this.descending = descending;
+    this.nullsFirst = nullsFirst;
+  }
+
+  /** Type of local variables holding compared values. */
+  public String getLocalType() {
+    if (kind.isPrimitive()) {
+      return form == Form.NULLABLE ? wrapperOf(kind) : kind.name().toLowerCase();
+    }
+    return type;
+  }
+
+  /**
+   * @return number of bits this attribute occupies in a {@code long} sort key, {@code 0} if it
+   *         cannot be part of such key
+   */
+  public int getKeyBits() {
+    if (form != Form.SINGLE) {
+      return 0;
+    }
+    switch (kind) {
+    case BOOLEAN:
+    case BYTE:
+    case SHORT:
+    case CHAR:
+    case INT:
+      return kind.bits;
+    case ENUM:
+      return enumConstants > 0
+          ? Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(enumConstants - 1))
+          : 0;
+    default:
+      return 0;
+    }
+  }
+
+  /** Mask of {@link #getKeyBits()} low bits, as a hexadecimal literal. */
+  public String getKeyMask() {
+    return "0x" + Long.toHexString((1L << getKeyBits()) - 1) + "L";
+  }
+
+  /** @return {@code true} if attribute is a single enum value keyed by its ordinal */
+  public boolean isEnumKey() {
+    return form == Form.SINGLE && kind == Kind.ENUM;
+  }
+
+  /** @return {@code true} if attribute can be written to a byte array sort key */
+  public boolean isByteKeySupported() {
+    return form != Form.ITERABLE && kind != Kind.COMPARABLE;
+  }
+
+  static boolean fitsLongKey(Iterable<SortAttribute> attributes) {
+    int total = 0;
+    for (SortAttribute s : attributes) {
+      int bits = s.getKeyBits();
+      if (bits == 0) {
+        return false;
+      }
+      total += bits;
+    }
+    return total > 0 && total <= MAX_LONG_KEY_BITS;
+  }
+
+  /**
+   * @return sort attribute or {@code null} if type of attribute cannot be ordered
+   */
+  @Nullable
+  static SortAttribute of(ValueAttribute attribute, int precedence, boolean descending, boolean nullsFirst) {
+    if (attribute.isEncoding() || attribute.isArrayType() || attribute.isMapType()) {
+      return null;
+    }
+    Form form;
+    String typeName;
+    @Nullable TypeElement element = null;
+    boolean comparable;
+    if (attribute.isCollectionType()) {
+      form = Form.ITERABLE;
+      typeName = attribute.getWrappedElementType();
+      element = attribute.containedTypeElement;
+      comparable = attribute.isMaybeComparableKey();
+    } else if (attribute.isJdkSpecializedOptional()) {
+      form = Form.OPTIONAL;
+      typeName = attribute.getElementType();
+      comparable = true;
+    } else if (attribute.isOptionalType()) {
+      form = Form.OPTIONAL;
+      typeName = attribute.getWrappedElementType();
+      element = attribute.containedTypeElement;
+      comparable = attribute.isMaybeComparableKey();
+    } else if (attribute.isContainerType()) {
+      return null;
+    } else {
+      form = attribute.isNullable() ? Form.NULLABLE : Form.SINGLE;
+      typeName = attribute.getType();
+      element = typeElementOf(attribute.returnType);
+      comparable = attribute.isComparable();
+    }
+
+    String type = stripTypeAnnotations(typeName);
+    @Nullable Kind kind = KIND_BY_TYPE.get(type);
+    int enumConstants = 0;
+    if (kind != null && form == Form.ITERABLE && kind.isPrimitive()) {
+      // boxed elements are compared as comparable objects
+      kind = Kind.COMPARABLE;
+    }
+    if (kind == null) {
+      if (element != null && element.getKind() == ElementKind.ENUM) {
+        kind = form == Form.ITERABLE ? Kind.COMPARABLE : Kind.ENUM;
+        enumConstants = countEnumConstants(element);
+      } else if (comparable) {
+        kind = Kind.COMPARABLE;
+      } else {
+        return null;
+      }
+    }
+    return new SortAttribute(attribute, form, kind, type, enumConstants, precedence, descending, nullsFirst);
+  }
+
+  private static String stripTypeAnnotations(String typeName) {
+    int start = typeName.indexOf('<');
+    String head = start > 0 ? typeName.substring(0, start) : typeName;
+    int endOfTypeAnnotations = head.lastIndexOf(' ');
+    return endOfTypeAnnotations > 0 ? typeName.substring(endOfTypeAnnotations + 1) : typeName;
+  }
+
+  @Nullable
+  private static TypeElement typeElementOf(TypeMirror type) {
+    if (type.getKind() == TypeKind.DECLARED) {
+      Element element = ((DeclaredType) type).asElement();
+      if (element instanceof TypeElement) {
+        return (TypeElement) element;
+      }
+    }
+    return null;
+  }
+
+  private static int countEnumConstants(TypeElement element) {
+    int constants = 0;
+    for (Element e : element.getEnclosedElements()) {
+      if (e.getKind() == ElementKind.ENUM_CONSTANT) {
+        constants++;
+      }
+    }
+    return constants;
+  }
+
+  private static String wrapperOf(Kind kind) {
+    switch (kind) {
+    case BOOLEAN:
+      return Boolean.class.getName();
+    case BYTE:
+      return Byte.class.getName();
+    case SHORT:
+      return Short.class.getName();
+    case CHAR:
+      return Character.class.getName();
+    case INT:
+      return Integer.class.getName();
+    case LONG:
+      return Long.class.getName();
+    case FLOAT:
+      return Float.class.getName();
+    case DOUBLE:
+      return Double.class.getName();
+    default:
+      throw new AssertionError(kind);
+    }
+  }
+}
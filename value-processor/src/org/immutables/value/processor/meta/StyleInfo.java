@@ -337,6 +337,30 @@ public abstract class StyleInfo implements ValueMirrors.Style {
   @Override
   public abstract String nullableAnnotation();
 
+  @Value.Parameter
+  @Override
+  public abstract boolean costOrderedEquals();
+
+  @Value.Parameter
+  @Override
+  public abstract boolean transferBuilderCollections();
+
+  @Value.Parameter
+  @Override
+  public abstract boolean packedAttributes();
+
+  @Value.Parameter
+  @Override
+  public abstract boolean appendToString();
+
+  @Value.Parameter
+  @Override
+  public abstract boolean binaryCodec();
+
+  @Value.Parameter
+  @Override
+  public abstract boolean modifiableChangeTracking();
+
   @Value.Lazy
   public Styles getStyles() {
     return new Styles(this);
@@ -15,12 +15,14 @@
  */
 package org.immutables.value.processor.meta;
 
+import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import java.lang.annotation.ElementType;
 import java.util.Collection;
@@ -1011,6 +1013,40 @@ public final class ValueAttribute extends TypeIntrospectionBase {
     return typeKind == AttributeTypeKind.ENCODING;
   }
 
+  /**
+   * Rough relative cost of comparing attribute values for equality. Lower is cheaper.
+   * @return cost rank
+   */
+  int equalityCost() {
+    if (isEncoding() || isArrayType() || isCollectionType() || isMapType()) {
+      return 4;
+    }
+    if (isOptionalType() || hasAttributeValue()) {
+      return 3;
+    }
+    if (isPrimitive() || isEnumType()) {
+      return 0;
+    }
+    if (isPrimitiveWrapperType()) {
+      return 1;
+    }
+    if (isStringType()) {
+      return 2;
+    }
+    return 3;
+  }
+
+  enum ByEqualityCost implements Function<ValueAttribute, Integer> {
+    FUNCTION;
+
+    static final Ordering<ValueAttribute> ORDERING = Ordering.<Integer>natural().onResultOf(FUNCTION);
+
+    @Override
+    public Integer apply(ValueAttribute input) {
+      return input.equalityCost();
+    }
+  }
+
   private boolean isMarkedAsMongoId() {
     return IdMirror.isPresent(element);
   }
@@ -1430,6 +1466,146 @@ public final class ValueAttribute extends TypeIntrospectionBase {
     }
   }
 
+  /** Enums with more constants are not packed, see {@link #getPackedWidth()}. */
+  private static final int MAX_PACKED_ENUM_CONSTANTS = 64;
+
+  private int packedWidth = -1;
+
+  public boolean isPacked() {
+    return containingType.isUsePackedAttributes()
+        && getPackedWidth() > 0;
+  }
+
+  /**
+   * @return number of bits required to store attribute packed, {@code 0} if attribute cannot be
+   *         packed.
+   */
+  int getPackedWidth() {
+    if (packedWidth < 0) {
+      packedWidth = computePackedWidth();
+    }
+    return packedWidth;
+  }
+
+  private int computePackedWidth() {
+    if (isEncoding()
+        || isGenerateDefault
+        || isGenerateDerived
+        || isGenerateLazy
+        || isAuxiliary()
+        || isNullable()) {
+      return 0;
+    }
+    if (isBoolean()) {
+      return 1;
+    }
+    if (isEnumType()
+        && !isContainerType()
+        && returnType.getKind() == TypeKind.DECLARED) {
+      int constants = 0;
+      for (Element e : ((DeclaredType) returnType).asElement().getEnclosedElements()) {
+        if (e.getKind() == ElementKind.ENUM_CONSTANT) {
+          constants++;
+        }
+      }
+      if (constants > 0 && constants <= MAX_PACKED_ENUM_CONSTANTS) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(constants - 1));
+      }
+    }
+    return 0;
+  }
+
+  public LongBits.BitPosition getPackedPosition() {
+    return containingType.getPackedAttributes().positionOf(this);
+  }
+
+  private @Nullable ValueType appendableValueType;
+  private boolean appendableValueTypeResolved;
+
+  /**
+   * @return value type of a regular, list or set attribute if its implementation generates
+   *         {@code appendTo(StringBuilder)}, otherwise {@code null}.
+   */
+  public @Nullable ValueType getAppendableValueType() {
+    if (!appendableValueTypeResolved) {
+      appendableValueTypeResolved = true;
+      appendableValueType = resolveAppendableValueType();
+    }
+    return appendableValueType;
+  }
+
+  private @Nullable ValueType resolveAppendableValueType() {
+    if (isEncoding() || !(typeKind.isRegular() || isListType() || isSetType())) {
+      return null;
+    }
+    @Nullable ValueType type = findGeneratedValueType(containedTypeElement, StyleFeature.APPEND_TO_STRING);
+    return type != null && type.isGenerateAppendTo() ? type : null;
+  }
+
+  @Nullable
+  ValueType findBinaryCodecValueType(@Nullable TypeElement typeElement) {
+    @Nullable ValueType type = findGeneratedValueType(typeElement, StyleFeature.BINARY_CODEC);
+    if (type == containingType) {
+      // fields of containing type are being computed, self reference is resolved when
+      // the codec is generated at all
+      return type;
+    }
+    return type != null && type.isGenerateBinaryCodec() ? type : null;
+  }
+
+  private enum StyleFeature {
+    APPEND_TO_STRING, BINARY_CODEC;
+
+    boolean enabledIn(StyleInfo style) {
+      switch (this) {
+      case APPEND_TO_STRING:
+        return style.appendToString();
+      case BINARY_CODEC:
+        return style.binaryCodec();
+      default:
+        throw new AssertionError();
+      }
+    }
+  }
+
+  /**
+   * Finds value type which is generated from {@code typeElement} in this round with the style
+   * feature enabled. Types with generic parameters or inaccessible implementation are not
+   * considered.
+   */
+  private @Nullable ValueType findGeneratedValueType(@Nullable TypeElement typeElement, StyleFeature feature) {
+    if (typeElement == null) {
+      return null;
+    }
+    if (CachingElements.equals(typeElement, containingType.element)) {
+      return containingType.generics().isEmpty() && feature.enabledIn(containingType.constitution.style())
+          ? containingType
+          : null;
+    }
+    Environment environment = protoclass().environment();
+    for (Protoclass p : environment.protoclassesFrom(Collections.singleton(typeElement))) {
+      if (p.kind().isDefinedValue()
+          && canAccessImplementation(p)
+          && p.constitution().generics().isEmpty()
+          && feature.enabledIn(p.styles().style())) {
+        return environment.composeValue(p);
+      }
+      break;
+    }
+    return null;
+  }
+
+  TypeElement containedSecondaryTypeElement() {
+    return containedSecondaryTypeElement;
+  }
+
+  public boolean isBuilderCollectionTransferred() {
+    return containingType.constitution.style().transferBuilderCollections()
+        && isGenerateJdkOnly()
+        && isListType()
+        && !isAttributeBuilder();
+  }
+
   public boolean isNullableCollector() {
     return typeKind.isCollectionOrMapping()
         && (isNullable() || containingType.isDeferCollectionAllocation());
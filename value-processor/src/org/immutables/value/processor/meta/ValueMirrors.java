@@ -35,6 +35,8 @@ public final class ValueMirrors {
 
     boolean prehash() default false;
 
+    boolean lazyhash() default false;
+
     boolean builder() default true;
   }
 
@@ -85,6 +87,11 @@ public final class ValueMirrors {
   @Mirror.Annotation("org.immutables.value.Value.Redacted")
   public @interface Redacted {}
 
+  @Mirror.Annotation("org.immutables.value.Value.BinaryTag")
+  public @interface BinaryTag {
+    int value();
+  }
+
   @Mirror.Annotation("org.immutables.value.Value.Style")
   public @interface Style {
     String[] get() default {};
@@ -231,6 +238,18 @@ public final class ValueMirrors {
 
     String nullableAnnotation() default "Nullable";
 
+    boolean costOrderedEquals() default false;
+
+    boolean transferBuilderCollections() default false;
+
+    boolean packedAttributes() default false;
+
+    boolean appendToString() default false;
+
+    boolean binaryCodec() default false;
+
+    boolean modifiableChangeTracking() default false;
+
     public enum ImplementationVisibility {
       PUBLIC,
       SAME,
@@ -33,6 +33,7 @@ import java.lang.annotation.ElementType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -136,6 +137,147 @@ public final class ValueType extends TypeIntrospectionBase {
     return constitution.style().deferCollectionAllocation() && !isUseStrictBuilder();
   }
 
+  public boolean isGenerateAppendTo() {
+    return constitution.style().appendToString()
+        && !isAnnotationType()
+        && !isToStringDefined;
+  }
+
+  /** Rough length of a printed attribute value, used to presize {@code toString()} buffer. */
+  private static final int ESTIMATED_VALUE_LENGTH = 8;
+
+  public int getToStringCapacity() {
+    int capacity = name().length() + 2;
+    for (ValueAttribute a : getEquivalenceAttributes()) {
+      capacity += a.names.raw.length() + 3 + ESTIMATED_VALUE_LENGTH;
+    }
+    return capacity;
+  }
+
+  private @Nullable List<BinaryField> binaryFields;
+
+  /**
+   * @return fields written by generated binary codec, one per settable attribute, or empty list if
+   *         codec is not enabled or some attribute type is not supported.
+   */
+  public List<BinaryField> getBinaryFields() {
+    if (binaryFields == null) {
+      binaryFields = ImmutableList.of();
+      if (constitution.style().binaryCodec()
+          && isUseBuilder()
+          && !isAnnotationType()
+          && generics().isEmpty()) {
+        @Nullable Map<Integer, ValueAttribute> numbers = assignBinaryFieldNumbers();
+        if (numbers == null) {
+          return binaryFields;
+        }
+        List<BinaryField> fields = new ArrayList<>();
+        for (Map.Entry<Integer, ValueAttribute> e : numbers.entrySet()) {
+          ValueAttribute a = e.getValue();
+          @Nullable BinaryField field = BinaryField.of(a, e.getKey());
+          if (field == null) {
+            a.report()
+                .warning("Binary codec is not generated: type of attribute '%s' is not supported."
+                    + " Supported are primitives, strings, enums, values with binary codec enabled"
+                    + " and optional, nullable, collections and maps of them",
+                    a.name());
+            fields = null;
+            break;
+          }
+          fields.add(field);
+        }
+        if (fields != null) {
+          binaryFields = ImmutableList.copyOf(fields);
+        }
+      }
+    }
+    return binaryFields;
+  }
+
+  /**
+   * Field numbers are taken from {@code @Value.BinaryTag} if present, otherwise from attribute
+   * position. Positional numbers shift when attributes are reordered or removed, so mixing
+   * them with pinned numbers is reported as a warning, and clashing numbers as an error.
+   * @return attributes by field number, in declaration order, or {@code null} if numbers are
+   *         invalid
+   */
+  @Nullable
+  private Map<Integer, ValueAttribute> assignBinaryFieldNumbers() {
+    List<ValueAttribute> attributes = getSettableAttributes();
+    boolean anyPinned = false;
+    for (ValueAttribute a : attributes) {
+      anyPinned |= BinaryTagMirror.isPresent(a.element);
+    }
+    Map<Integer, ValueAttribute> numbers = new LinkedHashMap<>();
+    int position = 0;
+    for (ValueAttribute a : attributes) {
+      position++;
+      Optional<BinaryTagMirror> tag = BinaryTagMirror.find(a.element);
+      int number = tag.isPresent() ? tag.get().value() : position;
+      if (tag.isPresent() && (number < 1 || number > BinaryField.MAX_NUMBER)) {
+        a.report()
+            .annotationNamed(BinaryTagMirror.simpleName())
+            .error("@Value.BinaryTag number should be from 1 to %d, but was %d", BinaryField.MAX_NUMBER, number);
+        return null;
+      }
+      if (!tag.isPresent() && anyPinned) {
+        a.report()
+            .warning("Attribute '%s' has no @Value.BinaryTag while other attributes have,"
+                + " its binary field number %d follows declaration position and will change if"
+                + " attributes are reordered or removed",
+                a.name(), number);
+      }
+      @Nullable ValueAttribute clashing = numbers.put(number, a);
+      if (clashing != null) {
+        a.report()
+            .error("Binary field number %d of attribute '%s' is already used by attribute '%s',"
+                + " use @Value.BinaryTag to assign distinct numbers",
+                number, a.name(), clashing.name());
+        return null;
+      }
+    }
+    return numbers;
+  }
+
+  public boolean isGenerateBinaryCodec() {
+    return !getBinaryFields().isEmpty();
+  }
+
+  public boolean isTrackModifiableChanges() {
+    return constitution.style().modifiableChangeTracking()
+        && kind().isModifiable();
+  }
+
+  public boolean isUsePackedAttributes() {
+    return constitution.style().packedAttributes()
+        && !isAnnotationType()
+        && !isGeneratePrivateNoargConstructor();
+  }
+
+  private @Nullable PackedAttributes packedAttributes;
+
+  public PackedAttributes getPackedAttributes() {
+    if (packedAttributes == null) {
+      List<ValueAttribute> packed = new ArrayList<>();
+      for (ValueAttribute a : getImplementedAttributes()) {
+        if (a.isPacked()) {
+          packed.add(a);
+        }
+      }
+      packedAttributes = new PackedAttributes(packed);
+    }
+    return packedAttributes;
+  }
+
+  public boolean isUseTransferBuilderCollections() {
+    for (ValueAttribute a : getSettableAttributes()) {
+      if (a.isBuilderCollectionTransferred()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   public boolean detectAttributeBuilders() {
     return constitution.style().attributeBuilderDetection();
   }
@@ -514,6 +656,36 @@ public final class ValueType extends TypeIntrospectionBase {
     return isUseConstructor() && !isUseBuilder();
   }
 
+  /**
+   * Gson type adapter reads attributes into local variables and passes them to the constructor
+   * instead of filling the builder. Applicable only if enabled and all attributes are constructor
+   * parameters which need no builder support: no default, encoding or array attributes, and every
+   * missing attribute is either reported as required or has an obvious empty value.
+   * @return {@code true} if type adapter should bypass the builder
+   */
+  public boolean isGsonReadBypassBuilder() {
+    if (!gsonTypeAdapters().bypassBuilder()
+        || !isUseConstructor()
+        || requiresAlternativeStrictConstructor()) {
+      return false;
+    }
+    List<ValueAttribute> settable = getSettableAttributes();
+    if (settable.size() != getConstructorArguments().size()
+        || !getConstructorArguments().containsAll(settable)) {
+      return false;
+    }
+    for (ValueAttribute a : settable) {
+      if (a.isJsonIgnore()
+          || a.isGenerateDefault
+          || a.isEncoding()
+          || a.isArrayType()
+          || !(a.isMandatory() || a.isNullable() || a.isPrimitive() || a.isContainerType())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public ValueImmutableInfo immutableFeatures;
 
   public boolean isGenerateWithInterface() {
@@ -551,6 +723,12 @@ public final class ValueType extends TypeIntrospectionBase {
         && !isGeneratePrivateNoargConstructor();
   }
 
+  public boolean isUseLazyhash() {
+    return immutableFeatures.lazyhash()
+        && !isUsePrehashed()
+        && !isAnnotationType();
+  }
+
   public InnerBuilderDefinition getInnerBuilder() {
     return constitution.innerBuilder();
   }
@@ -979,6 +1157,15 @@ public final class ValueType extends TypeIntrospectionBase {
         .toList();
   }
 
+  public List<ValueAttribute> getEqualToAttributes() {
+    List<ValueAttribute> attributes = getEquivalenceAttributes();
+    if (!constitution.style().costOrderedEquals()) {
+      return attributes;
+    }
+    // sort is stable, so attributes of the same cost retain declaration order
+    return ValueAttribute.ByEqualityCost.ORDERING.immutableSortedCopy(attributes);
+  }
+
   public boolean hasAuxiliaryAttributes() {
     for (ValueAttribute a : getImplementedAttributes()) {
       if (a.isAuxiliary()) {
@@ -1494,10 +1681,36 @@ public final class ValueType extends TypeIntrospectionBase {
   public final class FuncData {
     public final List<ValueAttribute> functionalAttributes = new ArrayList<>();
     public final List<BoundElement> boundElements = new ArrayList<>();
+    public final List<SortAttribute> sortAttributes = new ArrayList<>();
 
     FuncData() {
       List<ValueAttribute> allAccessibleAttributes = getAllAccessibleAttributes();
 
+      for (ValueAttribute a : allAccessibleAttributes) {
+        Optional<OrderByMirror> orderBy = OrderByMirror.find(a.element);
+        if (orderBy.isPresent()) {
+          @Nullable SortAttribute sort = SortAttribute.of(a,
+              orderBy.get().value(),
+              orderBy.get().descending(),
+              orderBy.get().nullsFirst());
+          if (sort != null) {
+            sortAttributes.add(sort);
+          } else {
+            a.report()
+                .annotationNamed(OrderByMirror.simpleName())
+                .error("@Functional.OrderBy cannot be applied to attribute '%s': supported are primitives,"
+                    + " Comparable types and optional, nullable or collections of them",
+                    a.name());
+          }
+        }
+      }
+      Collections.sort(sortAttributes, new Comparator<SortAttribute>() {
+        @Override
+        public int compare(SortAttribute left, SortAttribute right) {
+          return Integer.compare(left.precedence, right.precedence);
+        }
+      });
+
       if (constitution.protoclass().declaringType().isPresent()) {
         if (FunctionalMirror.isPresent(constitution.protoclass().declaringType().get().element())) {
           functionalAttributes.addAll(allAccessibleAttributes);
@@ -1536,7 +1749,32 @@ public final class ValueType extends TypeIntrospectionBase {
     }
 
     public boolean is() {
-      return !functionalAttributes.isEmpty() || !boundElements.isEmpty();
+      return !functionalAttributes.isEmpty() || !boundElements.isEmpty() || !sortAttributes.isEmpty();
+    }
+
+    public boolean isGenerateSortKey() {
+      return SortAttribute.fitsLongKey(sortAttributes);
+    }
+
+    public boolean isGenerateSortKeyBytes() {
+      if (sortAttributes.isEmpty()) {
+        return false;
+      }
+      for (SortAttribute s : sortAttributes) {
+        if (!s.isByteKeySupported()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    public boolean isUseElementsComparison() {
+      for (SortAttribute s : sortAttributes) {
+        if (s.form == SortAttribute.Form.ITERABLE) {
+          return true;
+        }
+      }
+      return false;
     }
 
     public final class BoundElement {
@@ -138,6 +138,12 @@ public final class ValueTypeComposer {
           .annotationNamed(ImmutableMirror.simpleName())
           .warning("'prehash' feature is automatically disabled when 'privateNoargConstructor' style is turned on");
     }
+    if (protoclass.features().prehash()
+        && protoclass.features().lazyhash()) {
+      protoclass.report()
+          .annotationNamed(ImmutableMirror.simpleName())
+          .warning("'lazyhash' feature is ignored when 'prehash' is turned on");
+    }
     if (type.isUseConstructor()
         && protoclass.constitution().factoryOf().isNew()) {
       if (type.isUseValidation()) {
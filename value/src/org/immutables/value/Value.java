@@ -110,6 +110,18 @@ public @interface Value {
      */
     boolean prehash() default false;
 
+    /**
+     * If {@code lazyhash=true} then {@code hashCode} will be computed on first use and cached in a
+     * transient field. Unlike {@link #prehash()}, construction does not pay for hashing, so this
+     * suits values which are created in large numbers but only some of which end up as keys in
+     * hash-based collections. The cache uses racy single-check idiom: it is safe without
+     * synchronization, as concurrent threads would at worst compute the same value more than once.
+     * Once both instances have cached their hash codes, {@code equals} will use them to short-cut
+     * on mismatch. If {@link #prehash()} is enabled, this option will be ignored.
+     * @return if generate lazily computed and cached hash code
+     */
+    boolean lazyhash() default false;
+
     /**
      * If {@code builder=false}, disables generation of {@code builder()}. Default is
      * {@literal true}.
@@ -413,6 +425,24 @@ public @interface Value {
   @Retention(RetentionPolicy.CLASS)
   public @interface Redacted {}
 
+  /**
+   * Pins the field number under which attribute is written by the binary codec generated when
+   * {@link Style#binaryCodec()} is enabled. Without this annotation, field number is the position
+   * of the attribute, so reordering or removing attributes makes previously written data be read
+   * into the wrong attributes. Numbers should be unique within a type and start from 1, numbers
+   * of removed attributes should not be reused. A warning is reported for attributes without
+   * this annotation if other attributes of the same type have it.
+   */
+  @Documented
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.CLASS)
+  public @interface BinaryTag {
+    /**
+     * @return field number, starting from 1
+     */
+    int value();
+  }
+
   /**
    * Naming and structural style could be used to customize convention of the generated
    * immutable implementations and companion classes. It could be placed on a class or package
@@ -1264,6 +1294,96 @@ public @interface Value {
      */
     String getBuilders() default "*Builders";
 
+    /**
+     * When enabled, generated {@code equals} compares attributes in the order of estimated cost
+     * rather than in declaration order: primitives and enums first, then boxed primitives, then
+     * strings, then nested values and optionals and, last of all, collections, maps and arrays.
+     * Values which differ in a cheap attribute are rejected without touching expensive ones. The
+     * order in which attributes are hashed or printed is not affected.
+     * @return {@code true} to order equality comparisons by cost. {@code false} is the default
+     */
+    boolean costOrderedEquals() default false;
+
+    /**
+     * When enabled, {@code build()} hands off collections accumulated by the builder to the
+     * built instance instead of copying them. This applies to {@code List} attributes generated
+     * with JDK collections (see {@link #jdkOnly()}): the builder's list is trimmed once and
+     * wrapped as unmodifiable, avoiding the second copy. Guava immutable collection builders
+     * already produce their result without extra copying.
+     * <p>
+     * As the instance then owns the collection, the builder is invalidated: subsequent
+     * {@code build()} invocations throw {@link IllegalStateException} and further collection
+     * mutations do not affect already built instance. Use with single-use builders, such as
+     * {@link #strictBuilder()} ones, which are discarded after building.
+     * @return {@code true} to transfer builder collections into built instances. {@code false}
+     *         is the default
+     */
+    boolean transferBuilderCollections() default false;
+
+    /**
+     * When enabled, mandatory {@code boolean} attributes and enum attributes with a small number
+     * of constants are stored packed in one or more {@code long} fields of the immutable
+     * implementation instead of a field per attribute. Enum values are stored by ordinal. This
+     * saves memory for value types with lots of flags, at the cost of bit masking on access.
+     * {@link Default}, {@link Derived}, {@link Lazy}, {@link Auxiliary} and nullable attributes
+     * are not packed. The option is ignored for annotation types and when
+     * {@link #privateNoargConstructor()} is enabled.
+     * @return {@code true} to pack boolean and enum attributes into bitfields. {@code false} is
+     *         the default
+     */
+    boolean packedAttributes() default false;
+
+    /**
+     * When enabled, immutable implementation gets a public {@code appendTo(StringBuilder)} method
+     * which appends the same representation as {@code toString()} to the supplied builder, and
+     * {@code toString()} delegates to it. Attributes of other abstract value types generated with
+     * this style enabled (including lists and sets of them) are appended recursively into the same
+     * builder instead of building an intermediate string per nested value. {@link Redacted}
+     * attributes are masked or omitted as usual. The option is ignored for annotation types and
+     * for types which define their own {@code toString()}.
+     * @return {@code true} to generate {@code appendTo(StringBuilder)}. {@code false} is the
+     *         default
+     */
+    boolean appendToString() default false;
+
+    /**
+     * When enabled, immutable implementation gets a nested {@code BinaryCodec} class which writes
+     * and reads values in a compact binary form to and from {@link java.io.DataOutput}/
+     * {@link java.io.DataInput} and {@link java.nio.ByteBuffer}. Each settable attribute is written
+     * as a field tagged with its number and wire type: integers as zig-zag
+     * varints, floating point numbers as fixed width, strings and enum constant names as
+     * length-prefixed UTF-8, and other abstract value types with binary codec enabled as nested
+     * groups. Absent optional and {@code null} attributes are not written, collection elements
+     * and map entries are written as repeated fields. Readers skip fields with unknown tags, so
+     * new attributes can be added without breaking older readers.
+     * <p>
+     * Field number is the attribute position (starting from 1) unless pinned by {@link BinaryTag}.
+     * Positional numbers change when attributes are reordered or removed, which makes previously
+     * written data be read into the wrong attributes, so types which are persisted or exchanged
+     * between versions should pin numbers of all attributes.
+     * <p>
+     * Codec uses builder to construct values, so it is not generated if builder is disabled, for
+     * parameterized types, or if any attribute has type other than primitive, wrapper, string,
+     * enum or value with binary codec (or optional, nullable, collection or map of them). A
+     * warning is reported for unsupported attributes.
+     * @return {@code true} to generate binary codec. {@code false} is the default
+     */
+    boolean binaryCodec() default false;
+
+    /**
+     * When enabled, modifiable implementation tracks which settable attributes were set, modified
+     * or unset. Changes are recorded as bits in {@code long} fields, so tracking adds no
+     * allocation to setters. Generated {@code changedAttributes()} returns names of attributes
+     * changed since creation or the last {@code resetChanges()} call, while {@code changeMark()}
+     * and {@code changedSince(long)} cheaply tell if there were any modifications after a mark
+     * was taken. Typical usage is to {@code resetChanges()} right after filling modifiable from a
+     * loaded value, and then write only changed attributes as a partial update. Generated MongoDB
+     * repositories get {@code Updater.changes(Modifiable)} which turns changed attributes into
+     * {@code $set} and {@code $unset} operations.
+     * @return {@code true} to track changes of modifiable attributes. {@code false} is the default
+     */
+    boolean modifiableChangeTracking() default false;
+
     /**
      * If implementation visibility is more restrictive than visibility of abstract value type, then
      * implementation type will not be exposed as a return type of {@code build()} or {@code of()}